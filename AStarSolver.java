@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+/** A* over single cells with a Manhattan-distance heuristic. */
+public class AStarSolver extends MazeSolver {
+    private final CellHeap open = new CellHeap();
+    private int[] cost = new int[0];
+    private int[] closed = new int[0]; // Equal to stamp once expanded
+
+    @Override
+    public String getName() { return "A*"; }
+
+    @Override
+    protected int search(int from, int to) {
+        open.clear();
+        visited[from] = stamp;
+        cost[from] = 0;
+        open.push(manhattan(from, to), from);
+
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (closed[cell] == stamp) continue; // Stale duplicate
+            closed[cell] = stamp;
+            expandedNodes++;
+            if (cell == to) return to;
+
+            int x = cell % width;
+            int y = cell / width;
+            int nextCost = cost[cell] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!isOpen(nx, ny)) continue;
+                int next = ny * width + nx;
+                if (visited[next] == stamp && cost[next] <= nextCost) continue;
+                visited[next] = stamp;
+                cost[next] = nextCost;
+                parent[next] = cell;
+                open.push(nextCost + manhattan(next, to), next);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected void clearStamps() {
+        super.clearStamps();
+        Arrays.fill(closed, 0);
+    }
+
+    @Override
+    protected void growScratch(int cells) {
+        super.growScratch(cells);
+        cost = new int[cells];
+        closed = new int[cells];
+    }
+}
@@ -0,0 +1,28 @@
+/** The classic on-heap int[][] grid, used for normal game levels. */
+public class ArrayMazeStorage implements MazeStorage {
+    private final int[][] grid;
+    private final int width;
+    private final int height;
+
+    public ArrayMazeStorage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.grid = new int[height][width];
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public int get(int x, int y) {
+        return grid[y][x];
+    }
+
+    @Override
+    public void set(int x, int y, int value) {
+        grid[y][x] = value;
+    }
+}
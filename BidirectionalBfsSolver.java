@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Breadth-first search from both ends at once, always growing the smaller frontier by
+ * one full layer. Explores roughly two balls of half the path length instead of one.
+ */
+public class BidirectionalBfsSolver extends MazeSolver {
+    private int[] forwardQueue = new int[0];
+    private int[] backwardQueue = new int[0];
+    private int[] backwardParent = new int[0];
+    private int[] backwardVisited = new int[0];
+    private int[] distance = new int[0]; // From whichever end reached the cell first
+
+    @Override
+    public String getName() { return "Bidirectional BFS"; }
+
+    @Override
+    protected int search(int from, int to) {
+        int forwardHead = 0, forwardTail = 0;
+        int backwardHead = 0, backwardTail = 0;
+        forwardQueue[forwardTail++] = from;
+        backwardQueue[backwardTail++] = to;
+        visited[from] = stamp;
+        backwardVisited[to] = stamp;
+        distance[from] = 0;
+        distance[to] = 0;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean forward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int[] queue = forward ? forwardQueue : backwardQueue;
+            int[] ownVisited = forward ? visited : backwardVisited;
+            int[] otherVisited = forward ? backwardVisited : visited;
+            int[] ownParent = forward ? parent : backwardParent;
+            int head = forward ? forwardHead : backwardHead;
+            int tail = forward ? forwardTail : backwardTail;
+
+            // Expand one whole layer and keep the best meeting point found in it
+            int layerEnd = tail;
+            int meeting = -1;
+            int bestLength = Integer.MAX_VALUE;
+            while (head < layerEnd) {
+                int cell = queue[head++];
+                expandedNodes++;
+                int x = cell % width;
+                int y = cell / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    if (!isOpen(nx, ny)) continue;
+                    int next = ny * width + nx;
+                    if (ownVisited[next] == stamp) continue;
+                    if (otherVisited[next] == stamp) {
+                        int length = distance[cell] + 1 + distance[next];
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meeting = next;
+                            ownParent[next] = cell;
+                        }
+                        continue;
+                    }
+                    ownVisited[next] = stamp;
+                    ownParent[next] = cell;
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+            if (forward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+            if (meeting >= 0) {
+                // The meeting cell now has a link towards each end
+                return meeting;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected int[] buildPath(int from, int to, int meeting) {
+        // parent leads from the meeting cell back to from, backwardParent onwards to to
+        int front = 1;
+        for (int cell = meeting; cell != from; cell = parent[cell]) front++;
+        int back = 0;
+        for (int cell = meeting; cell != to; cell = backwardParent[cell]) back++;
+
+        int[] path = new int[front + back];
+        int cell = meeting;
+        for (int i = front - 1; i >= 0; i--) {
+            path[i] = cell;
+            if (i > 0) cell = parent[cell];
+        }
+        cell = meeting;
+        for (int i = front; i < path.length; i++) {
+            cell = backwardParent[cell];
+            path[i] = cell;
+        }
+        return path;
+    }
+
+    @Override
+    protected void clearStamps() {
+        super.clearStamps();
+        Arrays.fill(backwardVisited, 0);
+    }
+
+    @Override
+    protected void growScratch(int cells) {
+        super.growScratch(cells);
+        forwardQueue = new int[cells];
+        backwardQueue = new int[cells];
+        backwardParent = new int[cells];
+        backwardVisited = new int[cells];
+        distance = new int[cells];
+    }
+}
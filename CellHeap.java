@@ -0,0 +1,51 @@
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of packed cell indices keyed by an int priority. Each entry is one
+ * long, {@code priority << 32 | cell}, so ordering is a single primitive comparison and
+ * nothing is boxed. Duplicates are allowed; callers skip stale entries when popping.
+ */
+class CellHeap {
+    private long[] entries = new long[256];
+    private int size;
+
+    void push(int priority, int cell) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        long entry = (long) priority << 32 | (cell & 0xFFFFFFFFL);
+        int pos = size++;
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (entries[parent] <= entry) break;
+            entries[pos] = entries[parent];
+            pos = parent;
+        }
+        entries[pos] = entry;
+    }
+
+    /** Removes the entry with the lowest priority and returns its cell. */
+    int pop() {
+        long top = entries[0];
+        long last = entries[--size];
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) break;
+            if (child + 1 < size && entries[child + 1] < entries[child]) child++;
+            if (entries[child] >= last) break;
+            entries[pos] = entries[child];
+            pos = child;
+        }
+        entries[pos] = last;
+        return (int) top;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+
+/**
+ * Constant-time path queries on a perfect maze.
+ *
+ * A perfect maze is a tree, so the path between two cells is unique: its length is
+ * depth(a) + depth(b) - 2 * depth(lca(a, b)) for any root. Preprocessing is one iterative
+ * DFS that records depths and an Euler tour. The lowest common ancestor is the shallowest
+ * cell on the tour between the two cells' first visits, found in O(1) with a sparse table
+ * over 64-entry blocks plus a per-position bitmask of the in-block suffix minima.
+ *
+ * The next step from a toward b needs no LCA at all: it is the child of a whose subtree
+ * (an interval of the tour) contains b, or else a's parent.
+ *
+ * The oracle is a snapshot; mazes whose walls change must build a new one.
+ */
+public class DistanceOracle {
+    // Directions: right, down, left, up
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    private static final int BLOCK_SHIFT = 6; // 64 tour positions per block, one long mask each
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+
+    private final int width;
+    private final int[] depth; // Per packed cell, -1 for walls
+    private final int[] first; // First and last position of each cell on the tour
+    private final int[] last;
+    private final int[] tour;  // Cells in Euler tour order
+    private final int[] tourDepth; // depth[tour[i]], so range minima read one array
+    private final long[] inBlockMinima;
+    private final int[][] blockMinimum; // blockMinimum[k][b]: tour index of the minimum over blocks b..b + 2^k - 1
+
+    public DistanceOracle(Maze maze) {
+        width = maze.getWidth();
+        int cells = width * maze.getHeight();
+        depth = new int[cells];
+        first = new int[cells];
+        last = new int[cells];
+        Arrays.fill(depth, -1);
+
+        int root = maze.getStartPosition().y * width + maze.getStartPosition().x;
+        tour = buildTour(maze, root, cells);
+        tourDepth = new int[tour.length];
+        for (int i = 0; i < tour.length; i++) tourDepth[i] = depth[tour[i]];
+        inBlockMinima = buildInBlockMinima();
+        blockMinimum = buildSparseTable();
+    }
+
+    /** Path length between two open packed cells. */
+    public int distance(int from, int to) {
+        int left = Math.min(first[from], first[to]);
+        int right = Math.max(first[from], first[to]);
+        return depth[from] + depth[to] - 2 * tourDepth[minimumIndex(left, right)];
+    }
+
+    public int distance(int fromX, int fromY, int toX, int toY) {
+        return distance(fromY * width + fromX, toY * width + toX);
+    }
+
+    /** Direction index (right, down, left, up) of the first step from one open cell toward another, or -1 if equal. */
+    public int nextStep(int from, int to) {
+        if (from == to) return -1;
+        boolean below = first[from] <= first[to] && first[to] <= last[from];
+        for (int d = 0; d < 4; d++) {
+            int neighbour = from + DY[d] * width + DX[d];
+            if (depth[neighbour] < 0) continue;
+            if (below) {
+                // The child whose tour interval holds the target
+                if (depth[neighbour] == depth[from] + 1
+                        && first[neighbour] <= first[to] && first[to] <= last[neighbour]) {
+                    return d;
+                }
+            } else if (depth[neighbour] == depth[from] - 1) {
+                return d; // Target is outside our subtree: go up
+            }
+        }
+        throw new IllegalArgumentException("Cells are not both open: " + from + ", " + to);
+    }
+
+    public int lowestCommonAncestor(int a, int b) {
+        int left = Math.min(first[a], first[b]);
+        int right = Math.max(first[a], first[b]);
+        return tour[minimumIndex(left, right)];
+    }
+
+    public int getWidth() { return width; }
+    public int getTourLength() { return tour.length; }
+
+    // Iterative DFS from the root; each cell is appended on entry and after every child
+    private int[] buildTour(Maze maze, int root, int cells) {
+        int open = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!maze.isWall(cell % width, cell / width)) open++;
+        }
+        int[] order = new int[Math.max(1, 2 * open - 1)];
+        int[] stack = new int[open];
+        byte[] tried = new byte[cells];
+        int length = 0;
+        int top = 0;
+        stack[0] = root;
+        depth[root] = 0;
+        first[root] = last[root] = length;
+        order[length++] = root;
+
+        while (top >= 0) {
+            int cell = stack[top];
+            int d = tried[cell]++;
+            if (d == 4) {
+                // Done with this subtree: back in the parent
+                if (--top >= 0) {
+                    int parent = stack[top];
+                    last[parent] = length;
+                    order[length++] = parent;
+                }
+                continue;
+            }
+            int x = cell % width + DX[d];
+            int y = cell / width + DY[d];
+            int next = y * width + x;
+            if (depth[next] >= 0 || maze.isWall(x, y)) continue; // Parent, or a wall (borders are walls)
+            depth[next] = depth[cell] + 1;
+            first[next] = last[next] = length;
+            order[length++] = next;
+            stack[++top] = next;
+        }
+        return length == order.length ? order : Arrays.copyOf(order, length);
+    }
+
+    // Bit j of mask[i] is set if position (block start + j) is a suffix minimum of its block up to i
+    private long[] buildInBlockMinima() {
+        long[] masks = new long[tour.length];
+        int[] stack = new int[BLOCK];
+        for (int blockStart = 0; blockStart < tour.length; blockStart += BLOCK) {
+            int size = 0;
+            long mask = 0;
+            for (int i = blockStart; i < Math.min(tour.length, blockStart + BLOCK); i++) {
+                while (size > 0 && tourDepth[stack[size - 1]] >= tourDepth[i]) {
+                    mask &= ~(1L << (stack[--size] - blockStart));
+                }
+                stack[size++] = i;
+                mask |= 1L << (i - blockStart);
+                masks[i] = mask;
+            }
+        }
+        return masks;
+    }
+
+    private int[][] buildSparseTable() {
+        int blocks = (tour.length + BLOCK - 1) >> BLOCK_SHIFT;
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        int[][] table = new int[levels][];
+        table[0] = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int end = Math.min(tour.length, (b + 1) << BLOCK_SHIFT) - 1;
+            table[0][b] = inBlockMinimum(b << BLOCK_SHIFT, end);
+        }
+        for (int k = 1; k < levels; k++) {
+            int span = 1 << (k - 1);
+            table[k] = new int[blocks - (1 << k) + 1];
+            for (int b = 0; b < table[k].length; b++) {
+                table[k][b] = shallower(table[k - 1][b], table[k - 1][b + span]);
+            }
+        }
+        return table;
+    }
+
+    // Tour index of the shallowest cell in tour[left..right]
+    private int minimumIndex(int left, int right) {
+        int leftBlock = left >> BLOCK_SHIFT;
+        int rightBlock = right >> BLOCK_SHIFT;
+        if (leftBlock == rightBlock) return inBlockMinimum(left, right);
+
+        int best = shallower(inBlockMinimum(left, ((leftBlock + 1) << BLOCK_SHIFT) - 1),
+            inBlockMinimum(rightBlock << BLOCK_SHIFT, right));
+        if (rightBlock - leftBlock > 1) {
+            int from = leftBlock + 1;
+            int k = 31 - Integer.numberOfLeadingZeros(rightBlock - from);
+            best = shallower(best, shallower(blockMinimum[k][from], blockMinimum[k][rightBlock - (1 << k)]));
+        }
+        return best;
+    }
+
+    // Within one block: the first suffix minimum at or after left is the minimum of [left, right]
+    private int inBlockMinimum(int left, int right) {
+        int blockStart = left & ~(BLOCK - 1);
+        long candidates = inBlockMinima[right] & (-1L << (left - blockStart));
+        return blockStart + Long.numberOfTrailingZeros(candidates);
+    }
+
+    private int shallower(int a, int b) {
+        return tourDepth[a] <= tourDepth[b] ? a : b;
+    }
+}
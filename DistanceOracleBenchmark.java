@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures {@link DistanceOracle} on generated mazes of increasing size: preprocessing
+ * time, then nanoseconds per distance and next-step query between random open cells,
+ * next to one bidirectional BFS query for scale. Distances are first checked against a
+ * full BFS from a few random sources, and every next step against the distances.
+ *
+ * Usage: java DistanceOracleBenchmark [queries-per-size]
+ */
+public class DistanceOracleBenchmark {
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    private static final int CHECKED_SOURCES = 3;
+    private static final int SOLVER_QUERIES = 50;
+
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int[] sizes = {201, 1001, 2001, 4001};
+
+        System.out.printf("%-6s %12s %14s %14s %14s %14s%n",
+            "Size", "build ms", "distance ns", "next step ns", "BFS ns", "avg distance");
+        for (int size : sizes) {
+            Maze maze = new Maze(new ArrayMazeStorage(size, size), size);
+            Random random = new Random(size);
+
+            // Build twice so the second, measured build runs compiled code
+            new DistanceOracle(maze);
+            long start = System.nanoTime();
+            DistanceOracle oracle = new DistanceOracle(maze);
+            long buildNanos = System.nanoTime() - start;
+
+            for (int s = 0; s < CHECKED_SOURCES; s++) {
+                verify(maze, oracle, randomOpenCell(maze, random));
+            }
+
+            int[] from = new int[queries];
+            int[] to = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                from[q] = randomOpenCell(maze, random);
+                to[q] = randomOpenCell(maze, random);
+            }
+
+            // Warm up, then measure; the sums keep the queries from being optimized away
+            long totalDistance = 0;
+            for (int round = 0; round < 2; round++) {
+                totalDistance = 0;
+                start = System.nanoTime();
+                for (int q = 0; q < queries; q++) totalDistance += oracle.distance(from[q], to[q]);
+            }
+            long distanceNanos = System.nanoTime() - start;
+
+            long directions = 0;
+            long stepNanos = 0;
+            for (int round = 0; round < 2; round++) {
+                directions = 0;
+                start = System.nanoTime();
+                for (int q = 0; q < queries; q++) directions += oracle.nextStep(from[q], to[q]);
+                stepNanos = System.nanoTime() - start;
+            }
+
+            MazeSolver solver = new BidirectionalBfsSolver();
+            for (int q = 0; q < SOLVER_QUERIES; q++) solver.solve(maze, from[q], to[q]);
+            start = System.nanoTime();
+            for (int q = 0; q < SOLVER_QUERIES; q++) {
+                int length = solver.solve(maze, from[q], to[q]).length - 1;
+                if (length != oracle.distance(from[q], to[q])) {
+                    throw new IllegalStateException("Solver disagrees on query " + q);
+                }
+            }
+            long solverNanos = System.nanoTime() - start;
+
+            System.out.printf("%-6d %12.1f %14.1f %14.1f %14.0f %14.0f%n", size, buildNanos / 1e6,
+                (double) distanceNanos / queries, (double) stepNanos / queries,
+                (double) solverNanos / SOLVER_QUERIES, (double) totalDistance / queries);
+            if (directions < 0) System.out.println(); // Never true; keeps the sum live
+        }
+    }
+
+    // BFS from one source; every open cell's oracle distance and next step must agree with it
+    private static void verify(Maze maze, DistanceOracle oracle, int source) {
+        int width = maze.getWidth();
+        int[] distance = new int[width * maze.getHeight()];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[distance.length];
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        distance[source] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int x = cell % width + DX[d];
+                int y = cell / width + DY[d];
+                if (maze.isWall(x, y) || distance[y * width + x] >= 0) continue;
+                distance[y * width + x] = distance[cell] + 1;
+                queue[tail++] = y * width + x;
+            }
+        }
+        for (int i = 0; i < tail; i++) {
+            int cell = queue[i];
+            if (oracle.distance(cell, source) != distance[cell]) {
+                throw new IllegalStateException("Distance from " + source + " to " + cell + ": "
+                    + oracle.distance(cell, source) + ", BFS says " + distance[cell]);
+            }
+            if (cell == source) continue;
+            int d = oracle.nextStep(cell, source);
+            int next = cell + DY[d] * width + DX[d];
+            if (maze.isWall(next % width, next / width) || distance[next] != distance[cell] - 1) {
+                throw new IllegalStateException("Next step from " + cell + " toward " + source + " is wrong");
+            }
+        }
+    }
+
+    private static int randomOpenCell(Maze maze, Random random) {
+        while (true) {
+            int x = 1 + random.nextInt(maze.getWidth() - 2);
+            int y = 1 + random.nextInt(maze.getHeight() - 2);
+            if (!maze.isWall(x, y)) return MazeSolver.pack(x, y, maze.getWidth());
+        }
+    }
+}
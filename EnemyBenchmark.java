@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Cost of one enemy tick against the number of chasers: the shared flow field versus
+ * each enemy running its own BFS to the player. Also times the incremental field update
+ * after a player move against a full rebuild.
+ *
+ * Usage: java EnemyBenchmark [ticks-per-row]
+ */
+public class EnemyBenchmark {
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int[] sizes = {51, 201, 501};
+        int[] counts = {1, 4, 16, 64, 256, 1024};
+
+        System.out.printf("%-6s %6s %16s %18s %10s%n", "Size", "Enemies", "shared ns/tick", "per-enemy ns/tick", "speedup");
+        for (int size : sizes) {
+            Maze maze = new Maze(new ArrayMazeStorage(size, size), size);
+            int[] distance = new int[size * size];
+            int[] queue = new int[size * size];
+            for (int count : counts) {
+                EnemySystem enemies = new EnemySystem(maze, count, size);
+                Random random = new Random(count);
+                long start = System.nanoTime();
+                for (int i = 0; i < ticks; i++) {
+                    wander(maze, random, enemies);
+                    enemies.tick();
+                    enemies.catchPlayer();
+                }
+                long shared = (System.nanoTime() - start) / ticks;
+
+                // Baseline: every enemy searches from its own cell; far fewer ticks on big mazes
+                int[] positions = spawnPositions(maze, enemies);
+                int baselineTicks = (int) Math.max(1, Math.min(ticks, 2_000_000L / ((long) count * size)));
+                long checksum = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < baselineTicks; i++) {
+                    wander(maze, random, null);
+                    for (int e = 0; e < positions.length; e++) {
+                        positions[e] = stepByBfs(maze, positions[e], distance, queue);
+                        checksum += positions[e];
+                    }
+                }
+                long perEnemy = (System.nanoTime() - start) / baselineTicks;
+                System.out.printf("%-6d %6d %16d %18d %9.0fx   (checksum %d)%n",
+                    size, count, shared, perEnemy, (double) perEnemy / shared, checksum);
+            }
+
+            // Root updates: adjacent player moves versus a full rebuild
+            FlowField field = new FlowField(maze);
+            maze.resetPlayer();
+            field.rebuild(maze.getPlayerX(), maze.getPlayerY());
+            Random random = new Random(size);
+            int moves = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < 1_000_000; i++) {
+                int d = random.nextInt(4);
+                if (maze.movePlayer(DX[d], DY[d])) {
+                    field.rootMoved(maze.getPlayerX(), maze.getPlayerY());
+                    moves++;
+                }
+            }
+            long incremental = (System.nanoTime() - start) / 1_000_000;
+            int rebuilds = Math.max(5, 2000 * 51 / size);
+            start = System.nanoTime();
+            for (int i = 0; i < rebuilds; i++) {
+                field.rebuild(maze.getPlayerX(), maze.getPlayerY());
+            }
+            long full = (System.nanoTime() - start) / rebuilds;
+            System.out.printf("%-6d  root move: %d ns incremental (%d moves), %d ns rebuild%n",
+                size, incremental, moves, full);
+        }
+    }
+
+    private static void wander(Maze maze, Random random, EnemySystem enemies) {
+        int d = random.nextInt(4);
+        if (maze.movePlayer(DX[d], DY[d]) && enemies != null) {
+            enemies.playerMoved();
+        }
+    }
+
+    private static int[] spawnPositions(Maze maze, EnemySystem enemies) {
+        int[] positions = new int[enemies.getCount()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = enemies.getY(i) * maze.getWidth() + enemies.getX(i);
+        }
+        return positions;
+    }
+
+    // BFS from the player back to the enemy, then take the first step along it
+    private static int stepByBfs(Maze maze, int from, int[] distance, int[] queue) {
+        int width = maze.getWidth();
+        int target = maze.getPlayerY() * width + maze.getPlayerX();
+        if (from == target) return from;
+        Arrays.fill(distance, -1);
+        int head = 0, tail = 0;
+        queue[tail++] = target;
+        distance[target] = 0;
+        while (head < tail && distance[from] < 0) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int next = (y + DY[d]) * width + x + DX[d];
+                if (distance[next] < 0 && !maze.isWall(x + DX[d], y + DY[d])) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        int x = from % width;
+        int y = from / width;
+        for (int d = 0; d < 4; d++) {
+            int next = (y + DY[d]) * width + x + DX[d];
+            if (distance[next] == distance[from] - 1 && !maze.isWall(x + DX[d], y + DY[d])) return next;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Random;
+
+/**
+ * Chaser enemies that all follow one shared {@link FlowField} rooted at the player.
+ *
+ * A tick moves every enemy one cell along the field, so its cost grows with the number
+ * of enemies but not with the maze size. A per-cell occupancy count makes "is an enemy
+ * on this cell" an O(1) lookup.
+ */
+public class EnemySystem implements ShiftingWalls.Listener {
+    public static final int CATCH_PENALTY_SECONDS = 3;
+    private static final int MAX_ENEMIES = 64;
+
+    private final Maze maze;
+    private final FlowField field;
+    private final int width;
+    private final int[] positions; // Packed cells
+    private final int[] spawns;
+    private final short[] occupancy;
+
+    public EnemySystem(Maze maze, int count, long seed) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.field = new FlowField(maze);
+        this.positions = new int[count];
+        this.spawns = new int[count];
+        this.occupancy = new short[width * maze.getHeight()];
+        field.rebuild(maze.getPlayerX(), maze.getPlayerY());
+
+        // Spawn in rooms in the far half of the maze from the start
+        Random random = new Random(seed);
+        int rooms = (width - 1) / 2;
+        int roomsHigh = (maze.getHeight() - 1) / 2;
+        int minDistance = (width + maze.getHeight()) / 2;
+        for (int i = 0; i < count; i++) {
+            int x, y;
+            do {
+                x = 1 + 2 * random.nextInt(rooms);
+                y = 1 + 2 * random.nextInt(roomsHigh);
+            } while (x + y < minDistance && rooms > 1);
+            spawns[i] = y * width + x;
+            positions[i] = spawns[i];
+            occupancy[positions[i]]++;
+        }
+    }
+
+    /** Enemy count for a level: none on the first two, then one more every two levels. */
+    public static int countForLevel(int level) {
+        return Math.min(MAX_ENEMIES, Math.max(0, (level - 1) / 2));
+    }
+
+    /** Call after each successful player move. */
+    public void playerMoved() {
+        field.rootMoved(maze.getPlayerX(), maze.getPlayerY());
+    }
+
+    /** Moves every enemy one step toward the player. */
+    public void tick() {
+        for (int i = 0; i < positions.length; i++) {
+            int d = field.directionAt(positions[i]);
+            if (d < 0) continue;
+            occupancy[positions[i]]--;
+            positions[i] += field.offset(d);
+            occupancy[positions[i]]++;
+        }
+    }
+
+    /** True if an enemy is on the player's cell; those enemies go back to their spawn. */
+    public boolean catchPlayer() {
+        int player = maze.getPlayerY() * width + maze.getPlayerX();
+        if (occupancy[player] == 0) return false;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == player) {
+                occupancy[player]--;
+                positions[i] = spawns[i];
+                occupancy[spawns[i]]++;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEnemyAt(int x, int y) {
+        return occupancy[y * width + x] > 0;
+    }
+
+    public int getCount() { return positions.length; }
+    public int getX(int i) { return positions[i] % width; }
+    public int getY(int i) { return positions[i] / width; }
+
+    @Override
+    public void wallsShifted(int closedX, int closedY, int openedX, int openedY) {
+        // Anyone standing in the corridor that closed steps into the room beside it
+        int closed = closedY * width + closedX;
+        if (occupancy[closed] > 0) {
+            int room = closedX % 2 == 0 ? closed - 1 : closed - width;
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] == closed) {
+                    positions[i] = room;
+                    occupancy[room]++;
+                }
+            }
+            occupancy[closed] = 0;
+        }
+        field.corridorSwapped(closedX, closedY, openedX, openedY);
+    }
+}
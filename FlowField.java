@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+/**
+ * For every open cell, the direction of the next step toward a root cell (the player),
+ * shared by all chasers so no enemy ever runs its own search.
+ *
+ * Mazes are spanning trees, which keeps updates cheap: when the root moves to a neighbour
+ * only the edge between the two cells changes direction, so {@link #rootMoved} is O(1).
+ * When a corridor is swapped in shifting-walls mode only the route from the new corridor
+ * to the old one changes direction, so {@link #corridorSwapped} costs the length of that
+ * route however far away the root is.
+ */
+public class FlowField {
+    // Directions: right, down, left, up
+    static final int[] DX = {1, 0, -1, 0};
+    static final int[] DY = {0, 1, 0, -1};
+    static final byte NONE = -1;
+
+    private final Maze maze;
+    private final int width;
+    private final byte[] next;
+    private final int[] queue;
+    private final boolean[] seen;
+    private int root;
+
+    public FlowField(Maze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.next = new byte[width * maze.getHeight()];
+        this.queue = new int[next.length];
+        this.seen = new boolean[next.length];
+    }
+
+    /** Recomputes the whole field with a BFS from (x, y). */
+    public void rebuild(int x, int y) {
+        Arrays.fill(next, NONE);
+        Arrays.fill(seen, false);
+        root = y * width + x;
+        int head = 0, tail = 0;
+        queue[tail++] = root;
+        seen[root] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell % width;
+            int cy = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                int neighbour = ny * width + nx;
+                if (seen[neighbour] || maze.isWall(nx, ny)) continue;
+                seen[neighbour] = true;
+                next[neighbour] = (byte) ((d + 2) % 4); // Step back toward cell
+                queue[tail++] = neighbour;
+            }
+        }
+    }
+
+    /** Moves the root to (x, y); O(1) when it is a neighbour of the old root. */
+    public void rootMoved(int x, int y) {
+        int newRoot = y * width + x;
+        int d = directionBetween(root, newRoot);
+        if (d < 0) {
+            rebuild(x, y);
+            return;
+        }
+        next[root] = (byte) d;
+        next[newRoot] = NONE;
+        root = newRoot;
+    }
+
+    /**
+     * Repairs the field after the corridor at (closedX, closedY) became a wall and the one at
+     * (openedX, openedY) opened. The field must not yet have seen either change.
+     */
+    public void corridorSwapped(int closedX, int closedY, int openedX, int openedY) {
+        int closed = closedY * width + closedX;
+        int opened = openedY * width + openedX;
+        int[] sides = openedX % 2 == 0
+            ? new int[] {opened - 1, opened + 1}
+            : new int[] {opened - width, opened + width};
+
+        // The side whose route to the root ran through the closed corridor is the cut-off one.
+        // Walk up from both sides in step: the first to reach the closed corridor (or the
+        // other reaching the root) decides it, after no more steps than the reversal below.
+        int a = sides[0];
+        int b = sides[1];
+        int cutOff = -1;
+        while (cutOff < 0) {
+            if (next[a] == NONE) {
+                cutOff = sides[1];
+            } else if (next[b] == NONE) {
+                cutOff = sides[0];
+            } else {
+                a += offset(next[a]);
+                b += offset(next[b]);
+                if (a == closed) cutOff = sides[0];
+                else if (b == closed) cutOff = sides[1];
+            }
+        }
+        int joined = cutOff == sides[0] ? sides[1] : sides[0];
+
+        // Reverse the old route from the cut-off side up to the closed corridor
+        int previous = opened;
+        int cell = cutOff;
+        while (cell != closed) {
+            if (next[cell] == NONE) {
+                rebuild(root % width, root / width); // Field was out of sync; start over
+                return;
+            }
+            int following = cell + offset(next[cell]);
+            next[cell] = (byte) directionBetween(cell, previous);
+            previous = cell;
+            cell = following;
+        }
+        next[closed] = NONE;
+        next[opened] = (byte) directionBetween(opened, joined);
+    }
+
+    /** Direction index of the next step from a packed cell toward the root, or -1. */
+    public int directionAt(int cell) {
+        return next[cell];
+    }
+
+    public int getRoot() { return root; }
+
+    int offset(int d) {
+        return DY[d] * width + DX[d];
+    }
+
+    private int directionBetween(int from, int to) {
+        for (int d = 0; d < 4; d++) {
+            if (from + offset(d) == to) return d;
+        }
+        return -1;
+    }
+}
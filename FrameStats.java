@@ -0,0 +1,78 @@
+/**
+ * Frame-time and input-latency statistics for the maze view.
+ *
+ * Frame time is the interval between two presented frames; input latency is the time
+ * from a move being accepted to the first frame presented after it. Samples go into
+ * fixed rings of the most recent frames, so recording never allocates.
+ */
+public class FrameStats {
+    private static final int SAMPLES = 4096;
+
+    private final String name;
+    private final long[] frameTimes = new long[SAMPLES];
+    private final long[] latencies = new long[SAMPLES];
+    private long frames;
+    private long inputs;
+    private long lastFrame;    // 0 when the next interval should not be measured
+    private long pendingInput; // 0 when no input is waiting for a frame
+
+    public FrameStats(String name) {
+        this.name = name;
+    }
+
+    /** Call when a key press changes what is on screen. */
+    public void inputReceived() {
+        if (pendingInput == 0) pendingInput = System.nanoTime();
+    }
+
+    /** Call after a frame has been handed to the screen. */
+    public void framePresented() {
+        long now = System.nanoTime();
+        if (lastFrame != 0) {
+            frameTimes[(int) (frames++ % SAMPLES)] = now - lastFrame;
+        }
+        lastFrame = now;
+        if (pendingInput != 0) {
+            latencies[(int) (inputs++ % SAMPLES)] = now - pendingInput;
+            pendingInput = 0;
+        }
+    }
+
+    /** Call when frames stop on purpose (pause, level end) so the gap is not counted. */
+    public void pause() {
+        lastFrame = 0;
+        pendingInput = 0;
+    }
+
+    public long getFrames() { return frames; }
+
+    /** The most recent frame time, or 0 before the second frame. */
+    public long getLastFrameNanos() {
+        return frames == 0 ? 0 : frameTimes[(int) ((frames - 1) % SAMPLES)];
+    }
+
+    /** The most recent input latency, or 0 before any input was shown. */
+    public long getLastLatencyNanos() {
+        return inputs == 0 ? 0 : latencies[(int) ((inputs - 1) % SAMPLES)];
+    }
+
+    /** Mean, standard deviation and 99th percentile of recent frame times and input latencies. */
+    public String summary() {
+        return String.format("%s: %d frames, frame time %s; %d inputs, latency %s",
+            name, frames, describe(frameTimes, frames), inputs, describe(latencies, inputs));
+    }
+
+    private static String describe(long[] ring, long count) {
+        int n = (int) Math.min(count, SAMPLES);
+        if (n == 0) return "n/a";
+        long[] sorted = java.util.Arrays.copyOf(ring, n);
+        java.util.Arrays.sort(sorted);
+        double sum = 0;
+        for (long sample : sorted) sum += sample;
+        double mean = sum / n;
+        double squares = 0;
+        for (long sample : sorted) squares += (sample - mean) * (sample - mean);
+        return String.format("mean %.2f ms, stddev %.2f ms, p99 %.2f ms",
+            mean / 1e6, Math.sqrt(squares / n) / 1e6, sorted[Math.min(n - 1, (int) (n * 0.99))] / 1e6);
+    }
+}
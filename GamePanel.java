@@ -2,12 +2,29 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferStrategy;
 import javax.swing.Timer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private final MazeRunnerGame game;
     private final GameStateManager gameStateManager;
+    private final HighScoreStore highScoreStore;
+    private final Telemetry telemetry; // null if telemetry could not be started
+    private final SpectatorPublisher spectators;
     private Maze maze;
+    private final MazeSelector mazeSelector = new MazeSelector(Runtime.getRuntime().availableProcessors());
+    private final MazeCache mazeCache = new MazeCache(MAZE_CACHE_BYTES);
+    private final Map<Integer, Long> levelSeeds = new HashMap<>(); // Layout chosen for each level this session
+    private boolean shiftingWallsMode;
+    private ShiftingWalls shiftingWalls; // Non-null while a shifting-walls level is running
+    private EnemySystem enemies;
+    private ItemLayer items;
     private Timer gameTimer;
     private Timer updateTimer;
     private static final int CELL_SIZE = 40; // Fixed cell size as before
@@ -18,12 +35,24 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private static final Color GOAL_COLOR = new Color(231, 76, 60);
     private static final Color PLAYER_COLOR = new Color(33, 150, 243);
     private static final Color START_COLOR = new Color(46, 204, 113);
+    private static final Color ENEMY_COLOR = new Color(155, 89, 182);
+    private static final Color TIME_BONUS_COLOR = new Color(241, 196, 15);
+    private static final Color KEY_COLOR = new Color(230, 126, 34);
     private static final Color TEXT_COLOR = new Color(44, 62, 80);
     private static final Color SIDE_PANEL_COLOR = new Color(0x1a1a2e);
     private static final Color SIDE_PANEL_TEXT_COLOR = new Color(236, 240, 241);
     private static final Color GRID_LINE_COLOR = new Color(20, 20, 20); // Darker grid lines
     private static final Color ARROW_COLOR = new Color(255, 0, 0, 200); // Brighter red
     private static final int ARROW_SIZE = 40; // Increased arrow size
+    private static final Path REPLAY_DIRECTORY = Paths.get("replays");
+    private static final int MAZE_CANDIDATES = 8; // Mazes scored per level to find a fair one
+    private static final long MAZE_SELECTION_BUDGET_MS = 50;
+    private static final long MAZE_CACHE_BYTES = 64L * 1024 * 1024;
+    // -Dmazerunner.activeRendering=true draws the maze on a Canvas with a BufferStrategy
+    private static final boolean ACTIVE_RENDERING = Boolean.getBoolean("mazerunner.activeRendering");
+    private static final int ACTIVE_BUFFERS = 2; // Double buffering keeps input latency to one frame
+    // -Dmazerunner.frameStats=true prints frame-time and input-latency statistics after each run
+    private static final boolean PRINT_FRAME_STATS = Boolean.getBoolean("mazerunner.frameStats");
 
     // Remove viewport smoothing as we want immediate centering
     private Point viewportOffset;
@@ -39,9 +68,18 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     private JLabel scoreLabel;
     private JLabel timeLabel;
 
-    public GamePanel(MazeRunnerGame game, GameStateManager gameStateManager) {
+    private ReplayRecorder recorder; // Records the current run, null between runs
+    private Canvas mazeCanvas; // Only in active rendering mode
+    private final FrameStats frameStats = new FrameStats(ACTIVE_RENDERING ? "active" : "passive");
+    private long runStartMillis;
+
+    public GamePanel(MazeRunnerGame game, GameStateManager gameStateManager, HighScoreStore highScoreStore,
+                     Telemetry telemetry, SpectatorPublisher spectators) {
         this.game = game;
         this.gameStateManager = gameStateManager;
+        this.highScoreStore = highScoreStore;
+        this.telemetry = telemetry;
+        this.spectators = spectators;
         setFocusable(true);
         addKeyListener(this);
         setBackground(PATH_COLOR);
@@ -49,6 +87,12 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
         // Create and add the side panel (with buttons shifted to bottom)
         createSidePanel();
+        if (ACTIVE_RENDERING) {
+            mazeCanvas = new Canvas();
+            mazeCanvas.setIgnoreRepaint(true); // Only renderFrame draws it
+            mazeCanvas.setFocusable(false);    // Keys keep going to this panel
+            add(mazeCanvas, BorderLayout.CENTER);
+        }
 
         // Initialize timers
         gameTimer = new Timer(UPDATE_INTERVAL, this);
@@ -56,7 +100,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             if (!isPaused) {
                 updateViewport();
                 updateSidePanel(); // Update the side panel info
-                repaint();
+                refreshMazeArea();
             }
         }); // ~60 FPS with viewport updates
     }
@@ -64,6 +108,21 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     public void stopTimers() {
         if (gameTimer != null) gameTimer.stop();
         if (updateTimer != null) updateTimer.stop();
+        finishRun();
+    }
+
+    // Ends the current run: saves its replay and adds it to the high scores
+    private void finishRun() {
+        if (recorder == null) return;
+        if (PRINT_FRAME_STATS) System.out.println(frameStats.summary());
+        recorder.saveAsync(REPLAY_DIRECTORY);
+        recorder = null;
+
+        if (highScoreStore != null && gameStateManager.getScore() > 0) {
+            long now = System.currentTimeMillis();
+            highScoreStore.append(new HighScoreStore.Run(gameStateManager.getScore(),
+                gameStateManager.getCurrentLevel(), now, (int) ((now - runStartMillis) / 1000)));
+        }
     }
 
     private void createSidePanel() {
@@ -135,6 +194,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         pauseButton.addActionListener(e -> togglePause());
         newGameButton.addActionListener(e -> {
             if (isPaused) togglePause();
+            finishRun();
             gameStateManager.resetGame();
             startNewGame();
         });
@@ -196,6 +256,11 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
 
     private void togglePause() {
         isPaused = !isPaused;
+        frameStats.pause();
+        if (recorder != null) {
+            recorder.recordState(isPaused ? ReplayRecorder.STATE_PAUSE : ReplayRecorder.STATE_RESUME);
+        }
+        if (telemetry != null) telemetry.record(isPaused ? Telemetry.PAUSE : Telemetry.RESUME);
         if (isPaused) {
             pauseButton.setText("> Resume");
             gameTimer.stop();
@@ -220,21 +285,81 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         return getWidth() - SIDE_PANEL_WIDTH;
     }
 
+    public void setShiftingWallsMode(boolean enabled) {
+        shiftingWallsMode = enabled;
+    }
+
+    // Forget the layouts chosen so far so the next game gets fresh mazes
+    public void resetLevelLayouts() {
+        levelSeeds.clear();
+    }
+
     public void startNewGame() {
-        maze = new Maze(gameStateManager.getCurrentLevel());
+        // Items only need the maze size, so place them while the maze is chosen
+        int size = Maze.sizeForLevel(gameStateManager.getCurrentLevel());
+        long itemSeed = ThreadLocalRandom.current().nextLong();
+        CompletableFuture<ItemLayer> placement =
+            CompletableFuture.supplyAsync(() -> ItemLayer.place(size, size, itemSeed));
+
+        maze = mazeForLevel(gameStateManager.getCurrentLevel());
+        shiftingWalls = null;
+        if (shiftingWallsMode) {
+            // Walls move during play, so work on a private copy rather than the cached layout
+            maze = new Maze(gameStateManager.getCurrentLevel(), maze.getSeed());
+            shiftingWalls = new ShiftingWalls(maze, maze.getSeed());
+        }
+        enemies = new EnemySystem(maze, EnemySystem.countForLevel(gameStateManager.getCurrentLevel()), maze.getSeed());
+        if (shiftingWalls != null) {
+            shiftingWalls.addListener(enemies);
+            if (spectators != null) shiftingWalls.addListener(spectators);
+        }
+        items = placement.join();
+        items.pickUp(maze.getStartPosition().x, maze.getStartPosition().y);
+        items.pickUp(maze.getGoalPosition().x, maze.getGoalPosition().y);
         
         // Force immediate viewport update to player position
+        frameStats.pause();
         SwingUtilities.invokeLater(() -> {
             centerViewportOnPlayer();
-            repaint();
+            refreshMazeArea();
         });
         
         gameStateManager.startLevel();
+        publishSpectatorState();
+        if (recorder == null) {
+            recorder = new ReplayRecorder(gameStateManager, shiftingWallsMode);
+            runStartMillis = System.currentTimeMillis();
+        }
+        recorder.recordState(ReplayRecorder.STATE_START_LEVEL);
+        if (telemetry != null) {
+            telemetry.record(Telemetry.LEVEL_START, gameStateManager.getCurrentLevel(), gameStateManager.getTimeRemaining());
+        }
+        recorder.recordLevel(maze);
         gameTimer.start();
         updateTimer.start();
         requestFocusInWindow();
     }
 
+    // Retries and restarts reuse the level's layout; only the player is reset
+    private Maze mazeForLevel(int level) {
+        Long seed = levelSeeds.get(level);
+        if (seed != null) {
+            Maze cached = mazeCache.get(level, seed);
+            if (cached != null) {
+                cached.resetPlayer();
+                return cached;
+            }
+            Maze regenerated = new Maze(level, seed); // Evicted; the seed rebuilds the same layout
+            mazeCache.put(level, regenerated);
+            return regenerated;
+        }
+
+        Maze selected = mazeSelector.select(level, MAZE_CANDIDATES, MAZE_SELECTION_BUDGET_MS).getMaze();
+        levelSeeds.put(level, selected.getSeed());
+        mazeCache.put(level, selected);
+        return selected;
+    }
+
     private void centerViewportOnPlayer() {
         if (maze == null) return;
         
@@ -280,8 +405,8 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         // Create new viewport offset
         viewportOffset = new Point(clampedOffsetX, clampedOffsetY);
         
-        // Force immediate repaint
-        repaint();
+        // Force immediate repaint (active rendering redraws on its own schedule)
+        if (mazeCanvas == null) repaint();
     }
 
     private void drawDirectionalArrow(Graphics g) {
@@ -297,6 +422,14 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
         // Calculate angle between player and goal
         double dx = goalPos.x - playerPos.x;
         double dy = goalPos.y - playerPos.y;
+        if (shiftingWalls != null) {
+            // Walls keep moving, so point along the current route instead of as the crow flies
+            int step = shiftingWalls.nextStepTowardGoal(playerPos.x, playerPos.y);
+            if (step >= 0) {
+                dx = step == 0 ? 1 : step == 2 ? -1 : 0;
+                dy = step == 1 ? 1 : step == 3 ? -1 : 0;
+            }
+        }
         double angle = Math.atan2(dy, dx);
 
         // Calculate center of the arrow panel
@@ -337,17 +470,27 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+        if (mazeCanvas == null) {
+            drawMazeArea((Graphics2D) g, getMazeAreaWidth(), getHeight());
+            frameStats.framePresented();
+        }
+
+        // Update the arrow panel
+        if (arrowPanel != null) {
+            arrowPanel.repaint();
+        }
+    }
+
+    // Draws everything left of the side panel; shared by Swing painting and the active canvas
+    private void drawMazeArea(Graphics2D g2d, int mazeAreaWidth, int mazeAreaHeight) {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         // Fill the maze area (excluding the side panel) with black
         g2d.setColor(Color.BLACK);
-        g2d.fillRect(0, 0, getMazeAreaWidth(), getHeight());
+        g2d.fillRect(0, 0, mazeAreaWidth, mazeAreaHeight);
 
         // Draw maze in the remaining space
         if (maze != null) {
-            int mazeAreaWidth = getMazeAreaWidth();
-            int mazeAreaHeight = getHeight();
             int totalMazeWidth = maze.getWidth() * CELL_SIZE;
             int totalMazeHeight = maze.getHeight() * CELL_SIZE;
 
@@ -359,15 +502,27 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             AffineTransform originalTransform = g2d.getTransform();
 
             // First translate to center the maze in the window (only if maze is smaller)
+            int originX = 0;
+            int originY = 0;
             if (totalMazeWidth < mazeAreaWidth && totalMazeHeight < mazeAreaHeight) {
                 g2d.translate(centerX, centerY);
+                originX = centerX;
+                originY = centerY;
             }
 
             // Then apply viewport offset to center on player
             if (viewportOffset != null) {
                 g2d.translate(-viewportOffset.x, -viewportOffset.y);
+                originX -= viewportOffset.x;
+                originY -= viewportOffset.y;
             }
 
+            // Only the cells inside the viewport are drawn, so huge mazes cost the same per frame
+            int firstX = Math.max(0, -originX / CELL_SIZE);
+            int firstY = Math.max(0, -originY / CELL_SIZE);
+            int lastX = Math.min(maze.getWidth() - 1, (mazeAreaWidth - originX) / CELL_SIZE);
+            int lastY = Math.min(maze.getHeight() - 1, (mazeAreaHeight - originY) / CELL_SIZE);
+
             // Draw maze background
             g2d.setColor(PATH_COLOR);
             g2d.fillRect(0, 0, totalMazeWidth, totalMazeHeight);
@@ -375,39 +530,57 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             // Draw grid lines
             g2d.setColor(GRID_LINE_COLOR);
             g2d.setStroke(new BasicStroke(2.0f));
-            for (int x = 0; x <= maze.getWidth(); x++) {
-                g2d.drawLine(x * CELL_SIZE, 0, x * CELL_SIZE, totalMazeHeight);
+            for (int x = firstX; x <= lastX + 1; x++) {
+                g2d.drawLine(x * CELL_SIZE, firstY * CELL_SIZE, x * CELL_SIZE, (lastY + 1) * CELL_SIZE);
             }
-            for (int y = 0; y <= maze.getHeight(); y++) {
-                g2d.drawLine(0, y * CELL_SIZE, totalMazeWidth, y * CELL_SIZE);
+            for (int y = firstY; y <= lastY + 1; y++) {
+                g2d.drawLine(firstX * CELL_SIZE, y * CELL_SIZE, (lastX + 1) * CELL_SIZE, y * CELL_SIZE);
             }
             g2d.setStroke(new BasicStroke(1.0f));
 
             // Draw maze cells
-            int[][] grid = maze.getGrid();
-            for (int y = 0; y < maze.getHeight(); y++) {
-                for (int x = 0; x < maze.getWidth(); x++) {
+            for (int y = firstY; y <= lastY; y++) {
+                for (int x = firstX; x <= lastX; x++) {
                     int cellX = x * CELL_SIZE;
                     int cellY = y * CELL_SIZE;
 
-                    if (maze.getStartPosition().x == x && maze.getStartPosition().y == y) {
-                        g2d.setColor(START_COLOR);
-                    } else if (maze.getGoalPosition().x == x && maze.getGoalPosition().y == y) {
-                        g2d.setColor(GOAL_COLOR);
-                    } else {
-                        switch (grid[y][x]) {
-                            case Maze.WALL:
-                                g2d.setColor(WALL_COLOR);
-                                break;
-                            default:
-                                g2d.setColor(PATH_COLOR);
-                                break;
-                        }
+                    switch (maze.getCell(x, y)) {
+                        case Maze.START:
+                            g2d.setColor(START_COLOR);
+                            break;
+                        case Maze.GOAL:
+                            g2d.setColor(GOAL_COLOR);
+                            break;
+                        case Maze.WALL:
+                            g2d.setColor(WALL_COLOR);
+                            break;
+                        default:
+                            g2d.setColor(PATH_COLOR);
+                            break;
                     }
                     g2d.fillRect(cellX, cellY, CELL_SIZE, CELL_SIZE);
                 }
             }
 
+            // Draw items inside the viewport
+            int itemMargin = CELL_SIZE / 3;
+            items.forEachInArea(firstX, firstY, lastX, lastY, (ix, iy, type) -> {
+                g2d.setColor(type == ItemLayer.KEY ? KEY_COLOR : TIME_BONUS_COLOR);
+                g2d.fillOval(ix * CELL_SIZE + itemMargin, iy * CELL_SIZE + itemMargin,
+                    CELL_SIZE - 2 * itemMargin, CELL_SIZE - 2 * itemMargin);
+            });
+
+            // Draw enemies inside the viewport
+            g2d.setColor(ENEMY_COLOR);
+            int enemyMargin = CELL_SIZE / 5;
+            for (int i = 0; i < enemies.getCount(); i++) {
+                int ex = enemies.getX(i);
+                int ey = enemies.getY(i);
+                if (ex < firstX || ex > lastX || ey < firstY || ey > lastY) continue;
+                g2d.fillRect(ex * CELL_SIZE + enemyMargin, ey * CELL_SIZE + enemyMargin,
+                    CELL_SIZE - 2 * enemyMargin, CELL_SIZE - 2 * enemyMargin);
+            }
+
             // Draw player
             Point player = maze.getPlayerPosition();
             int px = player.x * CELL_SIZE;
@@ -419,10 +592,38 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             // Restore the original transform
             g2d.setTransform(originalTransform);
         }
+    }
 
-        // Update the arrow panel
-        if (arrowPanel != null) {
-            arrowPanel.repaint();
+    // Active rendering: draw straight into the canvas back buffer and flip it now
+    private void renderFrame() {
+        if (!mazeCanvas.isDisplayable() || mazeCanvas.getWidth() == 0) return;
+        if (mazeCanvas.getBufferStrategy() == null) {
+            // Page flipping when the platform supports it, blitting otherwise
+            mazeCanvas.createBufferStrategy(ACTIVE_BUFFERS);
+        }
+        BufferStrategy strategy = mazeCanvas.getBufferStrategy();
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    drawMazeArea(g2d, mazeCanvas.getWidth(), mazeCanvas.getHeight());
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        frameStats.framePresented();
+    }
+
+    // Redraws the maze area: immediately when rendering actively, else via the RepaintManager
+    private void refreshMazeArea() {
+        if (mazeCanvas != null) {
+            renderFrame();
+            arrowPanel.repaint(); // paintComponent does this in passive mode
+        } else {
+            repaint();
         }
     }
 
@@ -430,13 +631,58 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == gameTimer) {
             gameStateManager.updateTime(1);
-            
-            if (gameStateManager.isGameOver()) {
-                gameTimer.stop();
-                updateTimer.stop();
-                showGameOverDialog();
+            if (recorder != null) recorder.recordState(ReplayRecorder.STATE_TICK);
+            if (telemetry != null) {
+                telemetry.record(Telemetry.FRAME_STATS, (int) (frameStats.getLastFrameNanos() / 1000),
+                    (int) (frameStats.getLastLatencyNanos() / 1000));
             }
+            if (shiftingWalls != null) {
+                shiftingWalls.tick(); // After the TICK record, as ReplayPlayer replays it
+            }
+            enemies.tick();
+            checkEnemyCatch();
+            publishSpectatorState();
+            checkGameOver();
+        }
+    }
+
+    // Lock-free hand-off to the spectator stream; the layout is copied here when a maze starts
+    private void publishSpectatorState() {
+        if (spectators != null) spectators.update(maze, gameStateManager);
+    }
+
+    private void checkEnemyCatch() {
+        if (enemies.catchPlayer()) {
+            gameStateManager.updateTime(EnemySystem.CATCH_PENALTY_SECONDS);
+            if (recorder != null) recorder.recordState(ReplayRecorder.STATE_ENEMY_CATCH);
+        }
+    }
+
+    private void collectItem() {
+        switch (items.pickUp(maze.getPlayerX(), maze.getPlayerY())) {
+            case ItemLayer.TIME_BONUS:
+                gameStateManager.addTime(ItemLayer.TIME_BONUS_SECONDS);
+                if (recorder != null) recorder.recordState(ReplayRecorder.STATE_TIME_BONUS);
+                break;
+            case ItemLayer.KEY:
+                gameStateManager.addScore(ItemLayer.KEY_POINTS);
+                if (recorder != null) recorder.recordState(ReplayRecorder.STATE_KEY);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private boolean checkGameOver() {
+        if (!gameStateManager.isGameOver()) return false;
+        if (recorder != null) recorder.recordState(ReplayRecorder.STATE_GAME_OVER);
+        if (telemetry != null) {
+            telemetry.record(Telemetry.GAME_OVER, gameStateManager.getCurrentLevel(), gameStateManager.getScore());
         }
+        gameTimer.stop();
+        updateTimer.stop();
+        showGameOverDialog();
+        return true;
     }
 
     private void showGameOverDialog() {
@@ -462,7 +708,7 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
             updateTimer.stop();
             
             // Force one final repaint to show player on goal
-            repaint();
+            refreshMazeArea();
             
             // Add a minimal delay to show the player on goal (reduced to 50ms)
             Timer delayTimer = new Timer(50, e -> {
@@ -473,6 +719,11 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
                 
                 // Complete the level and update score
                 gameStateManager.completeLevel();
+                if (recorder != null) recorder.recordState(ReplayRecorder.STATE_COMPLETE_LEVEL);
+                if (telemetry != null) {
+                    telemetry.record(Telemetry.LEVEL_COMPLETE, gameStateManager.getCurrentLevel() - 1, gameStateManager.getScore());
+                }
+                publishSpectatorState();
                 
                 // Create detailed score message
                 String message = String.format("""
@@ -538,11 +789,21 @@ public class GamePanel extends JPanel implements KeyListener, ActionListener {
                 return;
         }
 
+        if (dx == 0 && dy == 0) return; // Not a movement key
+
         if (maze.movePlayer(dx, dy)) {
+            if (recorder != null) recorder.recordMove(dx, dy);
+            if (telemetry != null) telemetry.record(Telemetry.MOVE, maze.getPlayerX(), maze.getPlayerY());
+            collectItem();
+            enemies.playerMoved();
+            checkEnemyCatch();
+            publishSpectatorState();
+            if (checkGameOver()) return;
+            frameStats.inputReceived();
             // Force immediate viewport update after movement
             SwingUtilities.invokeLater(() -> {
                 centerViewportOnPlayer();
-                repaint();
+                refreshMazeArea();
             });
             checkLevelComplete();
         }
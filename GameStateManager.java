@@ -40,6 +40,24 @@ public class GameStateManager {
         }
     }
 
+    public void addTime(int seconds) {
+        if (isGameActive) {
+            timeRemaining += seconds;
+        }
+    }
+
+    public void addScore(int points) {
+        score += points;
+    }
+
+    // Used by replay playback to jump straight to a recorded checkpoint
+    void restore(int level, int score, int timeRemaining, boolean active) {
+        this.currentLevel = level;
+        this.score = score;
+        this.timeRemaining = timeRemaining;
+        this.isGameActive = active;
+    }
+
     public boolean isGameOver() {
         return !isGameActive && timeRemaining == 0;
     }
@@ -0,0 +1,323 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.IntToLongFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded store for finished runs: an append-only log of fixed-size, CRC-checked records
+ * plus an in-memory columnar index for leaderboard queries.
+ *
+ * Appends are queued and written by a single writer thread that drains everything pending
+ * into one write and one fsync (group commit). On open the log is scanned once; a torn or
+ * corrupt tail left by a crash is truncated at the last valid record. A batch whose write
+ * fails is cut off the same way, so later appends follow the last good record.
+ */
+public class HighScoreStore implements Closeable {
+    private static final int MAGIC = 0x4D524853; // "MRHS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 24; // score, level, finishedAt, duration, crc
+    private static final int MAX_BATCH = 1024;
+
+    /** One finished run. */
+    public record Run(int score, int level, long finishedAt, int durationSeconds) {}
+
+    private static final class PendingAppend {
+        final Run run;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingAppend(Run run) {
+            this.run = run;
+        }
+    }
+
+    private static final PendingAppend SHUTDOWN = new PendingAppend(null);
+
+    private final FileChannel channel;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed; // Guarded by this
+    private long committedEnd; // End of the last fully written batch; writer thread after open
+
+    // Columnar index, guarded by this
+    private int count;
+    private int[] scores = new int[1024];
+    private int[] levels = new int[1024];
+    private long[] finishedAt = new long[1024];
+    private int[] durations = new int[1024];
+
+    private HighScoreStore(FileChannel channel) {
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "highscore-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public static HighScoreStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HighScoreStore store = new HighScoreStore(channel);
+        try {
+            store.recover();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        store.writer.start();
+        return store;
+    }
+
+    /**
+     * Queues a run for the next group commit. The future completes once it is on disk, and
+     * only then does the run appear in leaderboard queries.
+     */
+    public CompletableFuture<Void> append(Run run) {
+        PendingAppend pending = new PendingAppend(run);
+        synchronized (this) {
+            // Checked and queued under the lock close() takes, so nothing lands after SHUTDOWN
+            if (closed) {
+                throw new IllegalStateException("High score store is closed");
+            }
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /** Best runs by score, ties broken by level reached. */
+    public List<Run> topByScore(int n) {
+        return topByScore(n, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /** Best runs by score among runs finished in [from, to) epoch millis. */
+    public synchronized List<Run> topByScore(int n, long from, long to) {
+        return top(n, from, to, i -> ((long) scores[i] << 32) | levels[i]);
+    }
+
+    /** Furthest runs by level reached, ties broken by score. */
+    public synchronized List<Run> topByLevel(int n) {
+        return top(n, Long.MIN_VALUE, Long.MAX_VALUE, i -> ((long) levels[i] << 32) | scores[i]);
+    }
+
+    /** Most recently finished runs. */
+    public synchronized List<Run> mostRecent(int n) {
+        return top(n, Long.MIN_VALUE, Long.MAX_VALUE, i -> finishedAt[i]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            queue.add(SHUTDOWN);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // Selects the n largest keys with a bounded min-heap: O(records * log n)
+    private List<Run> top(int n, long from, long to, IntToLongFunction key) {
+        n = Math.min(n, count);
+        if (n <= 0) return new ArrayList<>();
+        int[] heap = new int[n];
+        long[] heapKeys = new long[n];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            if (finishedAt[i] < from || finishedAt[i] >= to) continue;
+            long k = key.applyAsLong(i);
+            if (heapSize < n) {
+                // Sift up
+                int pos = heapSize++;
+                while (pos > 0) {
+                    int parent = (pos - 1) >>> 1;
+                    if (heapKeys[parent] <= k) break;
+                    heap[pos] = heap[parent];
+                    heapKeys[pos] = heapKeys[parent];
+                    pos = parent;
+                }
+                heap[pos] = i;
+                heapKeys[pos] = k;
+            } else if (k > heapKeys[0]) {
+                // Replace the smallest and sift down
+                int pos = 0;
+                while (true) {
+                    int child = 2 * pos + 1;
+                    if (child >= heapSize) break;
+                    if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) child++;
+                    if (heapKeys[child] >= k) break;
+                    heap[pos] = heap[child];
+                    heapKeys[pos] = heapKeys[child];
+                    pos = child;
+                }
+                heap[pos] = i;
+                heapKeys[pos] = k;
+            }
+        }
+
+        // Sort the survivors best first
+        Integer[] order = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(heapKeys[b], heapKeys[a]));
+        List<Run> result = new ArrayList<>(heapSize);
+        for (int slot : order) {
+            int i = heap[slot];
+            result.add(new Run(scores[i], levels[i], finishedAt[i], durations[i]));
+        }
+        return result;
+    }
+
+    private void index(Run run) {
+        if (count == scores.length) {
+            int capacity = count * 2;
+            scores = Arrays.copyOf(scores, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            finishedAt = Arrays.copyOf(finishedAt, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+        }
+        scores[count] = run.score();
+        levels[count] = run.level();
+        finishedAt[count] = run.finishedAt();
+        durations[count] = run.durationSeconds();
+        count++;
+    }
+
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            committedEnd = HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a high score log (or unsupported version)");
+        }
+
+        // Scan in large chunks; stop at the first torn or corrupt record
+        ByteBuffer chunk = ByteBuffer.allocateDirect(RECORD_SIZE * 8192);
+        CRC32 crc = new CRC32();
+        long position = HEADER_SIZE;
+        long validEnd = HEADER_SIZE;
+        scan:
+        while (position < fileSize) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) break;
+            chunk.flip();
+            while (chunk.remaining() >= RECORD_SIZE) {
+                int start = chunk.position();
+                crc.reset();
+                chunk.limit(start + RECORD_SIZE - 4);
+                crc.update(chunk);
+                chunk.limit(read);
+                int stored = chunk.getInt(start + RECORD_SIZE - 4);
+                if ((int) crc.getValue() != stored) break scan;
+                index(new Run(chunk.getInt(start), chunk.getInt(start + 4),
+                    chunk.getLong(start + 8), chunk.getInt(start + 16)));
+                chunk.position(start + RECORD_SIZE);
+                validEnd += RECORD_SIZE;
+            }
+            position = validEnd;
+            if (read < RECORD_SIZE) break;
+        }
+
+        if (validEnd < fileSize) {
+            System.err.println("High score log: discarding " + (fileSize - validEnd)
+                + " bytes of incomplete or corrupt data");
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        committedEnd = validEnd;
+    }
+
+    // Cuts off whatever part of a failed batch reached the file; if even that fails, the
+    // next batch still overwrites it because writes start at committedEnd
+    private void discardTornBatch() {
+        try {
+            if (channel.size() > committedEnd) {
+                channel.truncate(committedEnd);
+            }
+        } catch (IOException e) {
+            System.err.println("Error truncating high score log: " + e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * MAX_BATCH);
+        CRC32 crc = new CRC32();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            buffer.clear();
+            for (PendingAppend pending : batch) {
+                if (pending == SHUTDOWN) {
+                    running = false;
+                    continue;
+                }
+                int start = buffer.position();
+                buffer.putInt(pending.run.score())
+                    .putInt(pending.run.level())
+                    .putLong(pending.run.finishedAt())
+                    .putInt(pending.run.durationSeconds());
+                crc.reset();
+                crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+                buffer.putInt((int) crc.getValue());
+            }
+            buffer.flip();
+
+            try {
+                // Positional writes: a failed batch never moves where the next one starts
+                long end = committedEnd;
+                while (buffer.hasRemaining()) {
+                    end += channel.write(buffer, end);
+                }
+                channel.force(false);
+                committedEnd = end;
+                synchronized (this) {
+                    for (PendingAppend pending : batch) {
+                        if (pending != SHUTDOWN) index(pending.run);
+                    }
+                }
+                for (PendingAppend pending : batch) {
+                    pending.done.complete(null);
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing high scores: " + e.getMessage());
+                discardTornBatch();
+                for (PendingAppend pending : batch) {
+                    pending.done.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
@@ -5,18 +5,23 @@ import java.awt.event.ActionListener;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
 
 public class HomeScreen extends JPanel {
     private final MazeRunnerGame game;
     private final GameStateManager gameStateManager;
+    private final HighScoreStore highScoreStore;
     private static final Color BACKGROUND_COLOR = new Color(40, 44, 52);
     private static final Color BUTTON_COLOR = new Color(61, 90, 254);
     private static final Color TEXT_COLOR = new Color(255, 255, 255);
     private Image backgroundImage;
 
-    public HomeScreen(MazeRunnerGame game, GameStateManager gameStateManager) {
+    public HomeScreen(MazeRunnerGame game, GameStateManager gameStateManager, HighScoreStore highScoreStore) {
         this.game = game;
         this.gameStateManager = gameStateManager;
+        this.highScoreStore = highScoreStore;
         setBackground(BACKGROUND_COLOR);
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
         try {
@@ -30,7 +35,7 @@ public class HomeScreen extends JPanel {
 
     private void initializeComponents() {
         // Add some space at the top
-        add(Box.createVerticalStrut(100));
+        add(Box.createVerticalStrut(60));
 
         // Game Title
         JLabel titleLabel = new JLabel("The Wayout!");
@@ -58,6 +63,16 @@ public class HomeScreen extends JPanel {
 
         add(Box.createVerticalStrut(20));
 
+        // Shifting Walls Button
+        JButton shiftingWallsButton = createStyledButton("Shifting Walls");
+        shiftingWallsButton.addActionListener(e -> {
+            gameStateManager.resetGame();
+            game.startGame(true);
+        });
+        add(shiftingWallsButton);
+
+        add(Box.createVerticalStrut(20));
+
         // Instructions Button
         JButton instructionsButton = createStyledButton("Instructions");
         instructionsButton.addActionListener(e -> showInstructions());
@@ -65,6 +80,14 @@ public class HomeScreen extends JPanel {
 
         add(Box.createVerticalStrut(20));
 
+        // High Scores Button
+        JButton highScoresButton = createStyledButton("High Scores");
+        highScoresButton.addActionListener(e -> showHighScores());
+        highScoresButton.setEnabled(highScoreStore != null);
+        add(highScoresButton);
+
+        add(Box.createVerticalStrut(20));
+
         // Exit Button
         JButton exitButton = createStyledButton("Exit");
         exitButton.addActionListener(e -> System.exit(0));
@@ -126,8 +149,13 @@ public class HomeScreen extends JPanel {
             • Each level gets progressively harder
             • Score points for completing levels
             • Bonus points for remaining time
+            • Gold coins add time, orange keys add points
+            • From level 3, purple chasers hunt you down:
+              each catch costs %d seconds
+            • Shifting Walls: corridors open and close as you play,
+              the arrow always shows the next step of the current route
             
-            Good luck, Maze Runner!""";
+            Good luck, Maze Runner!""".formatted(EnemySystem.CATCH_PENALTY_SECONDS);
 
         JOptionPane.showMessageDialog(this,
             instructions,
@@ -135,6 +163,25 @@ public class HomeScreen extends JPanel {
             JOptionPane.INFORMATION_MESSAGE);
     }
 
+    private void showHighScores() {
+        List<HighScoreStore.Run> top = highScoreStore.topByScore(10);
+        StringBuilder message = new StringBuilder("🏆 Top Scores:\n\n");
+        if (top.isEmpty()) {
+            message.append("No finished runs yet - go set one!");
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        for (int i = 0; i < top.size(); i++) {
+            HighScoreStore.Run run = top.get(i);
+            message.append(String.format("%2d.  %d points  •  Level %d  •  %s%n", i + 1,
+                run.score(), run.level(), dateFormat.format(new Date(run.finishedAt()))));
+        }
+
+        JOptionPane.showMessageDialog(this,
+            message.toString(),
+            "High Scores",
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
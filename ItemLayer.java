@@ -0,0 +1,148 @@
+import java.util.Random;
+
+/**
+ * Collectible items scattered over a maze's rooms, indexed two ways so neither moves nor
+ * frames ever scan the whole list: an open-addressing hash map from cell to item makes a
+ * pickup check O(1), and the items are grouped by 16x16-cell tile so rendering visits only
+ * the tiles that overlap the viewport.
+ *
+ * Rooms always sit at odd coordinates, so placement needs only the maze size and can run
+ * while the maze itself is being carved.
+ */
+public class ItemLayer {
+    public static final byte NONE = 0;
+    public static final byte TIME_BONUS = 1;
+    public static final byte KEY = 2;
+    public static final int TIME_BONUS_SECONDS = 2;
+    public static final int KEY_POINTS = 5;
+    private static final int TILE_SHIFT = 4; // 16x16 cells per tile
+    private static final int ROOMS_PER_ITEM = 8;
+    private static final int KEY_ODDS = 4; // One item in four is a key
+
+    /** Receives each remaining item inside a queried area. */
+    public interface Visitor {
+        void visit(int x, int y, byte type);
+    }
+
+    private final int width;
+    private final int height;
+    private final int tilesWide;
+    private final int[] tileStart; // Items of tile t are slots tileStart[t]..tileStart[t + 1] - 1
+    private final int[] cells;     // Packed cell of each slot, grouped by tile
+    private final byte[] types;    // NONE once collected
+    private final int[] keys;      // Hash map: packed cell + 1, 0 if empty
+    private final int[] slots;
+    private final int mask;
+    private int remaining;
+
+    private ItemLayer(int width, int height, int[] placed, byte[] placedTypes) {
+        this.width = width;
+        this.height = height;
+        this.tilesWide = ((width - 1) >> TILE_SHIFT) + 1;
+        int tiles = tilesWide * (((height - 1) >> TILE_SHIFT) + 1);
+
+        // Counting sort by tile
+        tileStart = new int[tiles + 1];
+        for (int cell : placed) {
+            tileStart[tileOf(cell) + 1]++;
+        }
+        for (int t = 0; t < tiles; t++) {
+            tileStart[t + 1] += tileStart[t];
+        }
+        int[] fill = new int[tiles];
+        cells = new int[placed.length];
+        types = new byte[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            int tile = tileOf(placed[i]);
+            int slot = tileStart[tile] + fill[tile]++;
+            cells[slot] = placed[i];
+            types[slot] = placedTypes[i];
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, placed.length) * 2 - 1) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int slot = 0; slot < cells.length; slot++) {
+            int i = hash(cells[slot]);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = cells[slot] + 1;
+            slots[i] = slot;
+        }
+        remaining = cells.length;
+    }
+
+    /** Scatters items over distinct rooms of a width x height maze; more rooms, more items. */
+    public static ItemLayer place(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int roomsWide = (width - 1) / 2;
+        int roomsHigh = (height - 1) / 2;
+        int count = Math.max(1, roomsWide * roomsHigh / ROOMS_PER_ITEM);
+
+        // Sample distinct rooms; with at most one item per eight rooms rejections are rare
+        boolean[] taken = new boolean[roomsWide * roomsHigh];
+        int[] placed = new int[count];
+        byte[] placedTypes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            int room;
+            do {
+                room = random.nextInt(taken.length);
+            } while (taken[room]);
+            taken[room] = true;
+            int x = 1 + 2 * (room % roomsWide);
+            int y = 1 + 2 * (room / roomsWide);
+            placed[i] = y * width + x;
+            placedTypes[i] = random.nextInt(KEY_ODDS) == 0 ? KEY : TIME_BONUS;
+        }
+        return new ItemLayer(width, height, placed, placedTypes);
+    }
+
+    /** Removes and returns the item at (x, y), or NONE if there is none. */
+    public byte pickUp(int x, int y) {
+        int cell = y * width + x;
+        for (int i = hash(cell); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == cell + 1) {
+                byte type = types[slots[i]];
+                if (type != NONE) {
+                    types[slots[i]] = NONE;
+                    remaining--;
+                }
+                return type;
+            }
+        }
+        return NONE;
+    }
+
+    /** Visits the remaining items with firstX <= x <= lastX and firstY <= y <= lastY. */
+    public void forEachInArea(int firstX, int firstY, int lastX, int lastY, Visitor visitor) {
+        int lastTileX = Math.min(lastX, width - 1) >> TILE_SHIFT;
+        int lastTileY = Math.min(lastY, height - 1) >> TILE_SHIFT;
+        for (int ty = Math.max(0, firstY) >> TILE_SHIFT; ty <= lastTileY; ty++) {
+            for (int tx = Math.max(0, firstX) >> TILE_SHIFT; tx <= lastTileX; tx++) {
+                int tile = ty * tilesWide + tx;
+                for (int slot = tileStart[tile]; slot < tileStart[tile + 1]; slot++) {
+                    if (types[slot] == NONE) continue;
+                    int x = cells[slot] % width;
+                    int y = cells[slot] / width;
+                    if (x >= firstX && x <= lastX && y >= firstY && y <= lastY) {
+                        visitor.visit(x, y, types[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getCount() { return cells.length; }
+    public int getRemaining() { return remaining; }
+
+    private int tileOf(int cell) {
+        return ((cell / width) >> TILE_SHIFT) * tilesWide + ((cell % width) >> TILE_SHIFT);
+    }
+
+    private int hash(int cell) {
+        int h = cell * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+
+/**
+ * Jump point search for 4-connected grids. From each expanded node it runs straight in
+ * every direction except back, skipping corridor cells, and only stops at the goal or at
+ * a cell with a side opening (a junction or turn). A* then runs over those jump points.
+ * Long corridors cost one expansion instead of one per cell.
+ */
+public class JumpPointSolver extends MazeSolver {
+    private static final byte NO_DIRECTION = 4;
+
+    private final CellHeap open = new CellHeap();
+    private int[] cost = new int[0];
+    private int[] closed = new int[0];
+    private byte[] arrival = new byte[0]; // Direction of the jump that reached the node
+
+    @Override
+    public String getName() { return "Jump point search"; }
+
+    @Override
+    protected int search(int from, int to) {
+        open.clear();
+        visited[from] = stamp;
+        cost[from] = 0;
+        arrival[from] = NO_DIRECTION;
+        open.push(manhattan(from, to), from);
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (closed[node] == stamp) continue; // Stale duplicate
+            closed[node] = stamp;
+            expandedNodes++;
+            if (node == to) return to;
+
+            int came = arrival[node];
+            for (int d = 0; d < 4; d++) {
+                if (came != NO_DIRECTION && d == (came + 2) % 4) continue; // Never jump back
+                int jumpPoint = jump(node, d, to);
+                if (jumpPoint < 0) continue;
+                int nextCost = cost[node] + manhattan(node, jumpPoint);
+                if (visited[jumpPoint] == stamp && cost[jumpPoint] <= nextCost) continue;
+                visited[jumpPoint] = stamp;
+                cost[jumpPoint] = nextCost;
+                parent[jumpPoint] = node;
+                arrival[jumpPoint] = (byte) d;
+                open.push(nextCost + manhattan(jumpPoint, to), jumpPoint);
+            }
+        }
+        return -1;
+    }
+
+    // Runs straight from cell in direction d; returns the jump point or -1 at a dead end
+    private int jump(int cell, int d, int to) {
+        int x = cell % width;
+        int y = cell / width;
+        int left = (d + 3) % 4;
+        int right = (d + 1) % 4;
+        while (true) {
+            x += DX[d];
+            y += DY[d];
+            if (!isOpen(x, y)) return -1;
+            int next = y * width + x;
+            if (next == to) return next;
+            if (isOpen(x + DX[left], y + DY[left]) || isOpen(x + DX[right], y + DY[right])) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    protected int[] buildPath(int from, int to, int meeting) {
+        // Parent links join jump points; fill in the straight runs between them
+        int length = 1;
+        for (int node = to; node != from; node = parent[node]) {
+            length += manhattan(node, parent[node]);
+        }
+        int[] path = new int[length];
+        int i = length - 1;
+        path[i] = to;
+        for (int node = to; node != from; node = parent[node]) {
+            int previous = parent[node];
+            int step = node / width == previous / width ? (node > previous ? 1 : -1)
+                                                        : (node > previous ? width : -width);
+            for (int cell = node - step; ; cell -= step) {
+                path[--i] = cell;
+                if (cell == previous) break;
+            }
+        }
+        return path;
+    }
+
+    @Override
+    protected void clearStamps() {
+        super.clearStamps();
+        Arrays.fill(closed, 0);
+    }
+
+    @Override
+    protected void growScratch(int cells) {
+        super.growScratch(cells);
+        cost = new int[cells];
+        closed = new int[cells];
+        arrival = new byte[cells];
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Link-cut trees (Sleator-Tarjan) over nodes 1..n stored in flat int arrays.
+ *
+ * Supports link, cut, connectivity, and re-rooting in O(log n) amortized time, plus depth
+ * and next-hop queries toward a chosen root. Node 0 is the null node.
+ */
+class LinkCutForest {
+    private final int[] left;
+    private final int[] right;
+    private final int[] parent; // Splay parent, or path-parent pointer at a splay root
+    private final int[] size;   // Nodes in the splay subtree
+    private final boolean[] flipped;
+    private final int[] stack;
+
+    LinkCutForest(int nodes) {
+        left = new int[nodes + 1];
+        right = new int[nodes + 1];
+        parent = new int[nodes + 1];
+        size = new int[nodes + 1];
+        flipped = new boolean[nodes + 1];
+        stack = new int[nodes + 1];
+        for (int i = 1; i <= nodes; i++) size[i] = 1;
+    }
+
+    /** Bulk-build helper: hangs a fresh root under a parent without any splaying. */
+    void attach(int child, int parentNode) {
+        parent[child] = parentNode;
+    }
+
+    boolean connected(int u, int v) {
+        return u == v || findRoot(u) == findRoot(v);
+    }
+
+    /** Adds edge u-v; u and v must be in different trees. */
+    void link(int u, int v) {
+        makeRoot(u);
+        parent[u] = v;
+    }
+
+    /** Removes edge u-v if it exists. */
+    void cut(int u, int v) {
+        makeRoot(u);
+        access(v);
+        pushDown(u);
+        if (left[v] == u && right[u] == 0) {
+            left[v] = 0;
+            parent[u] = 0;
+            update(v);
+        }
+    }
+
+    /** Number of edges between root and x (they must be connected). */
+    int depth(int root, int x) {
+        makeRoot(root);
+        access(x);
+        return size[left[x]];
+    }
+
+    /** The neighbour of x on its path to root, or 0 if x is the root. */
+    int nextToward(int root, int x) {
+        makeRoot(root);
+        access(x);
+        int y = left[x];
+        if (y == 0) return 0;
+        pushDown(y);
+        while (right[y] != 0) {
+            y = right[y];
+            pushDown(y);
+        }
+        splay(y); // Keeps the amortized bound
+        return y;
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flipped[x] ^= true;
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        pushDown(x);
+        while (left[x] != 0) {
+            x = left[x];
+            pushDown(x);
+        }
+        splay(x);
+        return x;
+    }
+
+    private void access(int x) {
+        int last = 0;
+        for (int y = x; y != 0; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == 0 || (left[p] != x && right[p] != x);
+    }
+
+    private void pushDown(int x) {
+        if (flipped[x]) {
+            int temp = left[x];
+            left[x] = right[x];
+            right[x] = temp;
+            if (left[x] != 0) flipped[left[x]] ^= true;
+            if (right[x] != 0) flipped[right[x]] ^= true;
+            flipped[x] = false;
+        }
+    }
+
+    private void update(int x) {
+        size[x] = 1 + size[left[x]] + size[right[x]];
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        boolean parentWasRoot = isSplayRoot(p);
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != 0) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != 0) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+        if (!parentWasRoot) {
+            if (left[g] == p) {
+                left[g] = x;
+            } else {
+                right[g] = x;
+            }
+        }
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // Apply pending flips from the top of this splay tree down to x
+        int top = 0;
+        stack[top++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            stack[top++] = parent[y];
+        }
+        while (top > 0) {
+            pushDown(stack[--top]);
+        }
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 import java.util.Random;
-import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
 import java.awt.Point;
-import java.util.List;
 
 public class Maze {
     public static final int WALL = 1;
@@ -10,147 +9,211 @@ public class Maze {
     public static final int PLAYER = 3;
     public static final int START = 4;
 
-    private int[][] grid;
+    // Directions: right, down, left, up
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    private static final int INTERRUPT_CHECK_MASK = (1 << 16) - 1; // Steps between interrupt checks
+
+    // All 24 orderings of the four directions, so a shuffled order fits in one stack byte
+    private static final int[][] PERMUTATIONS = new int[24][];
+    private static final int[] PERMUTATION_INDEX = new int[256];
+
+    static {
+        int count = 0;
+        for (int a = 0; a < 4; a++)
+            for (int b = 0; b < 4; b++)
+                for (int c = 0; c < 4; c++)
+                    for (int d = 0; d < 4; d++)
+                        if (a != b && a != c && a != d && b != c && b != d && c != d) {
+                            PERMUTATIONS[count] = new int[] {a, b, c, d};
+                            PERMUTATION_INDEX[a << 6 | b << 4 | c << 2 | d] = count++;
+                        }
+    }
+
+    private final MazeStorage storage;
     private int width;
     private int height;
     private Player player;
     private Point goalPosition;
     private Point startPosition;
     private Random random;
+    private long seed;
     private Point farthestPoint; // Track the farthest point from start for goal placement
 
     public Maze(int level) {
-        // Start with 7x7 for level 1, add 2 cells every level
-        // Ensure odd dimensions
-        width = 7 + (level - 1) * 2;
-        height = 7 + (level - 1) * 2;
-        width = width % 2 == 0 ? width + 1 : width;
-        height = height % 2 == 0 ? height + 1 : height;
-        
-        grid = new int[height][width];
-        random = new Random();
+        this(level, new Random().nextLong());
+    }
+
+    public Maze(int level, long seed) {
+        this(new ArrayMazeStorage(sizeForLevel(level), sizeForLevel(level)), seed);
+    }
+
+    /** Generates a maze into the given storage, which must have odd dimensions of at least 5. */
+    public Maze(MazeStorage storage, long seed) {
+        if (storage.getWidth() % 2 == 0 || storage.getHeight() % 2 == 0
+                || storage.getWidth() < 5 || storage.getHeight() < 5) {
+            throw new IllegalArgumentException("Maze dimensions must be odd and at least 5: "
+                + storage.getWidth() + "x" + storage.getHeight());
+        }
+        this.storage = storage;
+        width = storage.getWidth();
+        height = storage.getHeight();
+        this.seed = seed;
+        random = new Random(seed); // Same seed always carves the same layout (used by replays)
         farthestPoint = new Point(1, 1); // Initialize with start position
         generateMaze();
     }
 
-    private void generateMaze() {
-        // Initialize with walls
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                grid[y][x] = WALL;
-            }
-        }
+    // Start with 7x7 for level 1, add 2 cells every level (always odd)
+    static int sizeForLevel(int level) {
+        int size = 7 + (level - 1) * 2;
+        return size % 2 == 0 ? size + 1 : size;
+    }
 
-        // Create outer walls
-        for (int x = 0; x < width; x++) {
-            grid[0][x] = WALL;
-            grid[height - 1][x] = WALL;
-        }
-        for (int y = 0; y < height; y++) {
-            grid[y][0] = WALL;
-            grid[y][width - 1] = WALL;
-        }
+    private void generateMaze() {
+        // Initialize with walls (this includes the outer walls)
+        storage.fillWalls();
 
         // Start position at (1,1)
         startPosition = new Point(1, 1);
-        grid[1][1] = PATH;
+        storage.set(1, 1, PATH);
         player = new Player(1, 1);
 
-        // Generate maze using recursive backtracker
-        boolean[][] visited = new boolean[height][width];
-        visited[1][1] = true;
-        carvePath(1, 1, visited);
+        // Both passes walk the maze depth-first with an explicit stack of one byte per
+        // level, so huge mazes cannot overflow the thread stack. A path is at most every
+        // cell of the carved tree: one per room plus one per corridor between rooms.
+        long rooms = (long) ((width - 1) / 2) * ((height - 1) / 2);
+        try (MazeStorage.Scratch stack = storage.allocateScratch(2 * rooms)) {
 
-        // Find the farthest point from start using a more robust method
-        findFarthestPoint();
+            // Generate maze using recursive backtracker
+            carvePath(stack);
+
+            // Find the farthest point from start
+            findFarthestPoint(stack);
+        }
 
         // Place goal at the farthest point
-        grid[farthestPoint.y][farthestPoint.x] = GOAL;
         goalPosition = new Point(farthestPoint);
+        storage.set(goalPosition.x, goalPosition.y, GOAL);
 
         // Set start position
-        grid[startPosition.y][startPosition.x] = START;
-    }
-
-    private void findFarthestPoint() {
-        // Use a queue for breadth-first search to find the farthest point
-        boolean[][] visited = new boolean[height][width];
-        Point[][] parent = new Point[height][width];
-        int[][] distance = new int[height][width];
-        
-        // Queue for BFS
-        java.util.Queue<Point> queue = new java.util.LinkedList<>();
-        queue.add(startPosition);
-        visited[startPosition.y][startPosition.x] = true;
-        distance[startPosition.y][startPosition.x] = 0;
-        
-        // Directions: right, down, left, up
-        int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
-        
-        Point currentFarthest = startPosition;
-        int maxDistance = 0;
-        
-        while (!queue.isEmpty()) {
-            Point current = queue.poll();
-            
-            // Check all four directions
-            for (int[] dir : directions) {
-                int newX = current.x + dir[0];
-                int newY = current.y + dir[1];
-                
-                // If valid position, not visited, and is a path
-                if (isValidPosition(newX, newY) && !visited[newY][newX] && grid[newY][newX] == PATH) {
-                    visited[newY][newX] = true;
-                    parent[newY][newX] = current;
-                    distance[newY][newX] = distance[current.y][current.x] + 1;
-                    
-                    // Update the farthest point if this is further
-                    if (distance[newY][newX] > maxDistance) {
-                        maxDistance = distance[newY][newX];
-                        currentFarthest = new Point(newX, newY);
-                    }
-                    
-                    queue.add(new Point(newX, newY));
+        storage.set(startPosition.x, startPosition.y, START);
+    }
+
+    private void findFarthestPoint(MazeStorage.Scratch stack) {
+        // The carved maze is a tree, so depth in a DFS from the start is the path distance.
+        // Each stack byte holds the direction used to enter the cell (4 at the root) and
+        // the next direction to try.
+        long top = 0;
+        int x = startPosition.x;
+        int y = startPosition.y;
+        stack.set(0, (byte) (4 << 3));
+
+        long maxDistance = 0;
+        int farthestX = x;
+        int farthestY = y;
+        int steps = 0;
+
+        while (top >= 0) {
+            if ((++steps & INTERRUPT_CHECK_MASK) == 0) checkInterrupted();
+            int frame = stack.get(top);
+            int from = frame >>> 3;
+            int next = frame & 7;
+            if (next == 4) {
+                // Every direction tried: step back to the parent
+                top--;
+                if (from != 4) {
+                    x -= DX[from];
+                    y -= DY[from];
                 }
+                continue;
+            }
+            stack.set(top, (byte) (frame + 1));
+            if (from != 4 && next == (from + 2) % 4) continue; // Back the way we came
+
+            int newX = x + DX[next];
+            int newY = y + DY[next];
+            if (storage.get(newX, newY) == WALL) continue; // Outer walls keep this in bounds
+
+            x = newX;
+            y = newY;
+            stack.set(++top, (byte) (next << 3));
+
+            // Update the farthest point if this is further
+            if (top > maxDistance) {
+                maxDistance = top;
+                farthestX = x;
+                farthestY = y;
             }
         }
-        
+
         // Set the farthest point
-        farthestPoint = currentFarthest;
+        farthestPoint = new Point(farthestX, farthestY);
     }
 
-    private void carvePath(int x, int y, boolean[][] visited) {
-        // Directions: right, down, left, up
-        int[][] directions = {{2, 0}, {0, 2}, {-2, 0}, {0, -2}};
-        shuffleArray(directions);
+    private void carvePath(MazeStorage.Scratch stack) {
+        // Iterative form of the recursive backtracker. Each stack byte holds the shuffled
+        // direction order for a room and how many of those directions have been tried, and
+        // the shuffles happen in the same order as the recursive version, so a seed always
+        // produces the same layout.
+        long top = 0;
+        int x = startPosition.x;
+        int y = startPosition.y;
+        stack.set(0, (byte) (shuffledDirections() * 5));
+        int steps = 0;
 
-        // Try each direction
-        for (int[] dir : directions) {
-            int newX = x + dir[0];
-            int newY = y + dir[1];
+        while (top >= 0) {
+            if ((++steps & INTERRUPT_CHECK_MASK) == 0) checkInterrupted();
+            int frame = stack.get(top) & 0xFF;
+            int[] directions = PERMUTATIONS[frame / 5];
+            int tried = frame % 5;
+            if (tried == 4) {
+                // Dead end: backtrack through the corridor we came in by
+                if (--top >= 0) {
+                    int parent = stack.get(top) & 0xFF;
+                    int dir = PERMUTATIONS[parent / 5][parent % 5 - 1];
+                    x -= 2 * DX[dir];
+                    y -= 2 * DY[dir];
+                }
+                continue;
+            }
+            stack.set(top, (byte) (frame + 1));
+
+            int dir = directions[tried];
+            int newX = x + 2 * DX[dir];
+            int newY = y + 2 * DY[dir];
 
-            // Check if the new position is valid and unvisited
-            if (isValidPosition(newX, newY) && !visited[newY][newX]) {
+            // Rooms only turn to PATH once visited, so a walled room is unvisited
+            if (isValidPosition(newX, newY) && storage.get(newX, newY) == WALL) {
                 // Carve path by setting the wall between current and new position to PATH
-                int wallX = x + dir[0] / 2;
-                int wallY = y + dir[1] / 2;
-                grid[wallY][wallX] = PATH;
-                grid[newY][newX] = PATH;
-                visited[newY][newX] = true;
-
-                // Recursively continue from the new position
-                carvePath(newX, newY, visited);
+                storage.set(x + DX[dir], y + DY[dir], PATH);
+                storage.set(newX, newY, PATH);
+
+                // Continue from the new position
+                x = newX;
+                y = newY;
+                stack.set(++top, (byte) (shuffledDirections() * 5));
             }
         }
     }
 
-    private void shuffleArray(int[][] array) {
-        for (int i = array.length - 1; i > 0; i--) {
+    // Lets a cancelled background generation (e.g. a losing MazeSelector candidate) stop early
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Maze generation interrupted");
+        }
+    }
+
+    // Fisher-Yates shuffle of right, down, left, up; returns the index into PERMUTATIONS
+    private int shuffledDirections() {
+        int[] order = {0, 1, 2, 3};
+        for (int i = order.length - 1; i > 0; i--) {
             int j = random.nextInt(i + 1);
-            int[] temp = array[i];
-            array[i] = array[j];
-            array[j] = temp;
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
         }
+        return PERMUTATION_INDEX[order[0] << 6 | order[1] << 4 | order[2] << 2 | order[3]];
     }
 
     private boolean isValidPosition(int x, int y) {
@@ -158,25 +221,54 @@ public class Maze {
     }
 
     public boolean movePlayer(int dx, int dy) {
-        int newX = player.getPosition().x + dx;
-        int newY = player.getPosition().y + dy;
+        int newX = player.getX() + dx;
+        int newY = player.getY() + dy;
 
-        if (isValidPosition(newX, newY) && grid[newY][newX] != WALL) {
+        if (isValidPosition(newX, newY) && storage.get(newX, newY) != WALL) {
             player.move(dx, dy);
             return true;
         }
         return false;
     }
 
+    // Puts the player back on the start cell so a cached maze can be replayed
+    public void resetPlayer() {
+        player.setPosition(startPosition.x, startPosition.y);
+    }
+
+    // Opens or closes a single cell (shifting-walls mode)
+    void setWall(int x, int y, boolean wall) {
+        storage.set(x, y, wall ? WALL : PATH);
+    }
+
+    // Moves the player without collision checks (replay seeking)
+    void placePlayer(int x, int y) {
+        player.setPosition(x, y);
+    }
+
     public boolean isGoalReached() {
-        return player.getPosition().equals(goalPosition);
+        return player.getX() == goalPosition.x && player.getY() == goalPosition.y;
+    }
+
+    /** Cell code at (x, y), including START and GOAL whatever the storage keeps. */
+    public int getCell(int x, int y) {
+        if (x == goalPosition.x && y == goalPosition.y) return GOAL;
+        if (x == startPosition.x && y == startPosition.y) return START;
+        return storage.get(x, y);
+    }
+
+    public boolean isWall(int x, int y) {
+        return storage.get(x, y) == WALL;
     }
 
     // Getters
-    public int[][] getGrid() { return grid; }
+    public MazeStorage getStorage() { return storage; }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     public Point getPlayerPosition() { return player.getPosition(); }
+    public int getPlayerX() { return player.getX(); }
+    public int getPlayerY() { return player.getY(); }
     public Point getGoalPosition() { return goalPosition; }
     public Point getStartPosition() { return startPosition; }
-} 
\ No newline at end of file
+    public long getSeed() { return seed; }
+} 
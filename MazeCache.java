@@ -0,0 +1,79 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of generated mazes keyed by (level, seed), so retrying or restarting
+ * a level reuses its layout instead of carving it again. The bound is an estimate of the
+ * bytes held by each maze's grid; least recently used mazes are evicted first.
+ */
+public class MazeCache {
+    private record Key(int level, long seed) {}
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Maze> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MazeCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns the cached maze, or null on a miss. The caller resets the player as needed. */
+    public synchronized Maze get(int level, long seed) {
+        Maze maze = entries.get(new Key(level, seed));
+        if (maze == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return maze;
+    }
+
+    public synchronized void put(int level, Maze maze) {
+        long bytes = estimateBytes(maze);
+        if (bytes > maxBytes) return; // Would evict everything and still not fit
+
+        Maze previous = entries.put(new Key(level, maze.getSeed()), maze);
+        if (previous != null) {
+            currentBytes -= estimateBytes(previous);
+        }
+        currentBytes += bytes;
+
+        Iterator<Map.Entry<Key, Maze>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= estimateBytes(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getSizeBytes() { return currentBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("MazeCache[%d mazes, %d/%d bytes, %d hits, %d misses, %d evictions]",
+            entries.size(), currentBytes, maxBytes, hits, misses, evictions);
+    }
+
+    // int[height][width] grid: one array header per row plus 4 bytes per cell
+    private static long estimateBytes(Maze maze) {
+        return 64 + (long) maze.getHeight() * (16 + 4L * maze.getWidth());
+    }
+}
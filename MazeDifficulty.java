@@ -0,0 +1,105 @@
+/**
+ * Difficulty metrics for a generated maze, computed in one BFS pass over the grid
+ * plus a walk back along the solution path.
+ */
+public class MazeDifficulty {
+    // Weights for the combined score; path length counts 1 per step
+    private static final double TURN_WEIGHT = 0.5;
+    private static final double DECISION_WEIGHT = 2.0;
+    private static final double DEAD_END_WEIGHT = 0.25;
+
+    private final int solutionLength;
+    private final int deadEnds;
+    private final int junctions;
+    private final int decisions; // Junctions on the solution path
+    private final int turns;
+
+    private MazeDifficulty(int solutionLength, int deadEnds, int junctions, int decisions, int turns) {
+        this.solutionLength = solutionLength;
+        this.deadEnds = deadEnds;
+        this.junctions = junctions;
+        this.decisions = decisions;
+        this.turns = turns;
+    }
+
+    public static MazeDifficulty of(Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] dx = {1, 0, -1, 0};
+        int[] dy = {0, 1, 0, -1};
+
+        int cells = width * height;
+        byte[] parentDir = new byte[cells]; // Direction taken to reach the cell, -1 = unvisited
+        byte[] degree = new byte[cells];
+        java.util.Arrays.fill(parentDir, (byte) -1);
+        int[] queue = new int[cells];
+        int head = 0, tail = 0;
+
+        int start = maze.getStartPosition().y * width + maze.getStartPosition().x;
+        int goal = maze.getGoalPosition().y * width + maze.getGoalPosition().x;
+        queue[tail++] = start;
+        parentDir[start] = 4; // Root marker
+
+        int deadEnds = 0;
+        int junctions = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            int open = 0;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + dx[d];
+                int ny = y + dy[d];
+                if (maze.isWall(nx, ny)) continue; // Border walls keep this in bounds
+                open++;
+                int next = ny * width + nx;
+                if (parentDir[next] == -1) {
+                    parentDir[next] = (byte) d;
+                    queue[tail++] = next;
+                }
+            }
+            degree[cell] = (byte) open;
+            if (open == 1 && cell != start && cell != goal) deadEnds++;
+            if (open >= 3) junctions++;
+        }
+
+        // Walk back from the goal
+        int length = 0;
+        int turns = 0;
+        int decisions = 0;
+        int previousDir = -1;
+        int cell = goal;
+        while (cell != start && parentDir[cell] >= 0) {
+            int d = parentDir[cell];
+            if (previousDir != -1 && d != previousDir) turns++;
+            previousDir = d;
+            cell -= dy[d] * width + dx[d];
+            if (degree[cell] >= 3) decisions++;
+            length++;
+        }
+        return new MazeDifficulty(length, deadEnds, junctions, decisions, turns);
+    }
+
+    /** Score of a typical maze at this level, used as the selection target. */
+    public static double targetFor(int level) {
+        // Fitted to the median score of sampled mazes for levels 1-40
+        return 0.76 * Math.pow(Maze.sizeForLevel(level), 1.785);
+    }
+
+    /** Combined difficulty; higher means a longer, twistier route with more choices. */
+    public double getScore() {
+        return solutionLength + TURN_WEIGHT * turns + DECISION_WEIGHT * decisions + DEAD_END_WEIGHT * deadEnds;
+    }
+
+    public int getSolutionLength() { return solutionLength; }
+    public int getDeadEnds() { return deadEnds; }
+    public int getJunctions() { return junctions; }
+    public int getDecisions() { return decisions; }
+    public int getTurns() { return turns; }
+
+    @Override
+    public String toString() {
+        return String.format("difficulty %.1f (path %d, turns %d, decisions %d, dead ends %d, junctions %d)",
+            getScore(), solutionLength, turns, decisions, deadEnds, junctions);
+    }
+}
@@ -0,0 +1,92 @@
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+/**
+ * Times strip-based PNG and text export of a huge off-heap maze for several thread counts
+ * and reports peak heap use, after checking a small export decodes to the right pixels.
+ *
+ * Usage: java -XX:MaxDirectMemorySize=512m MazeExportBenchmark [size] [cell-size]
+ */
+public class MazeExportBenchmark {
+    public static void main(String[] args) throws IOException {
+        int size = (args.length > 0 ? Integer.parseInt(args[0]) : 10000) | 1;
+        int cellSize = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        verify();
+
+        MazeStorage storage = OffHeapMazeStorage.allocate(size, size);
+        Maze maze = new Maze(storage, 42);
+        Path file = Files.createTempFile("maze", ".png");
+        System.out.printf("Maze %dx%d, %d px per cell, image %dx%d%n",
+            size, size, cellSize, (long) size * cellSize, (long) size * cellSize);
+        try {
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1 : Math.min(cores, threads * 2)) {
+                resetPeaks();
+                long start = System.nanoTime();
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    MazeExporter.writePng(maze, cellSize, out, threads);
+                }
+                report("PNG, " + threads + " thread" + (threads == 1 ? "" : "s"), start, file);
+            }
+            resetPeaks();
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                MazeExporter.writeText(maze, out);
+            }
+            report("Text", start, file);
+        } finally {
+            Files.deleteIfExists(file);
+            storage.close();
+        }
+    }
+
+    // Every pixel of a decoded export must have the colour of its cell
+    private static void verify() throws IOException {
+        for (int cellSize : new int[] {1, 3, 5}) {
+            Maze maze = new Maze(new ArrayMazeStorage(301, 201), cellSize);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MazeExporter.writePng(maze, cellSize, out, 3);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+            int[] colours = new int[5];
+            colours[Maze.PATH] = 0xECF0F1;
+            colours[Maze.WALL] = 0x2C3E50;
+            colours[Maze.START] = 0x2ECC71;
+            colours[Maze.GOAL] = 0xE74C3C;
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    int expected = colours[maze.getCell(x / cellSize, y / cellSize)];
+                    if ((image.getRGB(x, y) & 0xFFFFFF) != expected) {
+                        throw new IllegalStateException("Pixel " + x + "," + y + " has the wrong colour");
+                    }
+                }
+            }
+        }
+        System.out.println("Decoded exports match the maze");
+    }
+
+    private static void resetPeaks() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static void report(String label, long start, Path file) throws IOException {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("  %-14s %6.2f s  %,12d bytes  peak heap %d MB%n",
+            label, seconds, Files.size(file), peak >> 20);
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Headless export of a maze to PNG or plain text, one horizontal strip at a time, so
+ * memory use does not depend on the maze size.
+ *
+ * The PNG is a 2-bit palette image. Each strip of scanlines is deflated on its own by a
+ * worker thread and ends on a byte-aligned sync flush (the last one finishes the stream),
+ * so the compressed strips concatenate into one valid zlib stream. Only a bounded window
+ * of strips is in flight at once, and they are written in order as they complete.
+ *
+ * Usage: java MazeExporter size seed file.png|file.txt [cell-size]
+ */
+public class MazeExporter {
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int STRIP_BYTES = 1 << 20; // Target uncompressed size of one strip
+    // Maze rows give deflate long runs of short matches; level 1 is ~15x faster than the
+    // default level here for output only ~10% larger
+    private static final int COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+    // Palette indices
+    private static final int PATH_INDEX = 0;
+    private static final int WALL_INDEX = 1;
+    private static final int START_INDEX = 2;
+    private static final int GOAL_INDEX = 3;
+    private static final byte[] PALETTE = {
+        (byte) 236, (byte) 240, (byte) 241, // Path
+        44, 62, 80,                         // Wall
+        46, (byte) 204, 113,                // Start
+        (byte) 231, 76, 60                  // Goal
+    };
+
+    /** One strip's deflated bytes plus what is needed to stitch it into the stream. */
+    private record Strip(byte[] data, int length, long adler, long rawLength) {}
+
+    /** Writes the maze as a PNG with cellSize x cellSize pixels per cell. */
+    public static void writePng(Maze maze, int cellSize, OutputStream out, int threads) throws IOException {
+        long imageWidth = (long) maze.getWidth() * cellSize;
+        long imageHeight = (long) maze.getHeight() * cellSize;
+        if (imageWidth > Integer.MAX_VALUE || imageHeight > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Image too large: " + imageWidth + "x" + imageHeight);
+        }
+        int scanlineBytes = 1 + (int) ((imageWidth * 2 + 7) / 8); // Filter byte + 4 pixels per byte
+        int mazeRowsPerStrip = Math.max(1, STRIP_BYTES / (scanlineBytes * cellSize));
+        int strips = (maze.getHeight() + mazeRowsPerStrip - 1) / mazeRowsPerStrip;
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.write(PNG_SIGNATURE);
+        byte[] header = new byte[13];
+        writeInt(header, 0, (int) imageWidth);
+        writeInt(header, 4, (int) imageHeight);
+        header[8] = 2; // Bit depth
+        header[9] = 3; // Palette colour
+        writeChunk(data, "IHDR", header, header.length);
+        writeChunk(data, "PLTE", PALETTE, PALETTE.length);
+        writeChunk(data, "IDAT", new byte[] {0x78, 0x01}, 2); // zlib header: deflate, 32K window
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Strip>> inFlight = new ArrayDeque<>();
+        long adler = 1;
+        try {
+            for (int strip = 0; strip < strips; strip++) {
+                int firstRow = strip * mazeRowsPerStrip;
+                int lastRow = Math.min(maze.getHeight(), firstRow + mazeRowsPerStrip);
+                boolean last = strip == strips - 1;
+                inFlight.add(pool.submit(() -> deflateStrip(maze, cellSize, scanlineBytes, firstRow, lastRow, last)));
+                // Two strips per thread keeps every core busy while bounding memory
+                if (inFlight.size() >= 2 * threads) {
+                    adler = writeStrip(data, inFlight.poll().get(), adler);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                adler = writeStrip(data, inFlight.poll().get(), adler);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Strip compression failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        byte[] trailer = new byte[4];
+        writeInt(trailer, 0, (int) adler);
+        writeChunk(data, "IDAT", trailer, trailer.length);
+        writeChunk(data, "IEND", new byte[0], 0);
+        data.flush();
+    }
+
+    /** Writes the maze as text: '#' walls, ' ' paths, 'S' start and 'G' goal. */
+    public static void writeText(Maze maze, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        byte[] row = new byte[maze.getWidth() + 1];
+        row[maze.getWidth()] = '\n';
+        for (int y = 0; y < maze.getHeight(); y++) {
+            for (int x = 0; x < maze.getWidth(); x++) {
+                switch (maze.getCell(x, y)) {
+                    case Maze.WALL:
+                        row[x] = '#';
+                        break;
+                    case Maze.START:
+                        row[x] = 'S';
+                        break;
+                    case Maze.GOAL:
+                        row[x] = 'G';
+                        break;
+                    default:
+                        row[x] = ' ';
+                        break;
+                }
+            }
+            buffered.write(row);
+        }
+        buffered.flush();
+    }
+
+    // Builds the strip's filtered scanlines and deflates them without a zlib header
+    private static Strip deflateStrip(Maze maze, int cellSize, int scanlineBytes,
+                                      int firstRow, int lastRow, boolean last) {
+        byte[] raw = new byte[(lastRow - firstRow) * cellSize * scanlineBytes];
+        int offset = 0;
+        for (int y = firstRow; y < lastRow; y++) {
+            // Filter type 0, then 2-bit pixels packed from the high bits down
+            int rowStart = offset;
+            int pixel = 0;
+            for (int x = 0; x < maze.getWidth(); x++) {
+                int index = paletteIndex(maze.getCell(x, y));
+                for (int i = 0; i < cellSize; i++, pixel++) {
+                    raw[rowStart + 1 + (pixel >> 2)] |= (byte) (index << (6 - 2 * (pixel & 3)));
+                }
+            }
+            offset += scanlineBytes;
+            // Every pixel row of a maze row is the same
+            for (int copy = 1; copy < cellSize; copy++) {
+                System.arraycopy(raw, rowStart, raw, offset, scanlineBytes);
+                offset += scanlineBytes;
+            }
+        }
+
+        Adler32 adler = new Adler32();
+        adler.update(raw, 0, raw.length);
+        Deflater deflater = new Deflater(COMPRESSION_LEVEL, true);
+        deflater.setInput(raw);
+        if (last) deflater.finish();
+        byte[] out = new byte[raw.length / 4 + 64];
+        int length = 0;
+        while (true) {
+            if (length == out.length) out = Arrays.copyOf(out, out.length * 2);
+            int space = out.length - length;
+            int written = deflater.deflate(out, length, space, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            length += written;
+            // A sync flush is complete once it leaves output space unused
+            if (last ? deflater.finished() : written < space) break;
+        }
+        deflater.end();
+        return new Strip(out, length, adler.getValue(), raw.length);
+    }
+
+    private static long writeStrip(DataOutputStream data, Strip strip, long adler) throws IOException {
+        writeChunk(data, "IDAT", strip.data(), strip.length());
+        return combineAdler(adler, strip.adler(), strip.rawLength());
+    }
+
+    // Adler-32 of two concatenated blocks from the checksums of each (as zlib's adler32_combine)
+    static long combineAdler(long adler1, long adler2, long length2) {
+        final long base = 65521;
+        long remainder = length2 % base;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % base;
+        sum1 += (adler2 & 0xFFFF) + base - 1;
+        sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + base - remainder;
+        if (sum1 >= base) sum1 -= base;
+        if (sum1 >= base) sum1 -= base;
+        if (sum2 >= base << 1) sum2 -= base << 1;
+        if (sum2 >= base) sum2 -= base;
+        return sum1 | (sum2 << 16);
+    }
+
+    private static int paletteIndex(int cell) {
+        switch (cell) {
+            case Maze.WALL: return WALL_INDEX;
+            case Maze.START: return START_INDEX;
+            case Maze.GOAL: return GOAL_INDEX;
+            default: return PATH_INDEX;
+        }
+    }
+
+    private static void writeChunk(DataOutputStream data, String type, byte[] body, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(body, 0, length);
+        data.writeInt(length);
+        data.write(typeBytes);
+        data.write(body, 0, length);
+        data.writeInt((int) crc.getValue());
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java MazeExporter size seed file.png|file.txt [cell-size]");
+            return;
+        }
+        int size = Integer.parseInt(args[0]) | 1; // Mazes need odd dimensions
+        long seed = Long.parseLong(args[1]);
+        Path file = Paths.get(args[2]);
+        int cellSize = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        MazeStorage storage = OffHeapMazeStorage.allocate(size, size);
+        Maze maze = new Maze(storage, seed);
+        long start = System.nanoTime();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (file.toString().endsWith(".txt")) {
+                writeText(maze, out);
+            } else {
+                writePng(maze, cellSize, out, Runtime.getRuntime().availableProcessors());
+            }
+        } finally {
+            storage.close();
+        }
+        System.out.printf("Wrote %s (%,d bytes) in %.2f s%n", file, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Property-based fuzzing of maze generation. Generates seeded mazes across a sweep of
+ * widths and heights on every core and checks each one:
+ * <ul>
+ *   <li>the border is solid wall</li>
+ *   <li>the open cells form a perfect maze: connected, and exactly one edge fewer than cells</li>
+ *   <li>the start is open and the goal is a cell at the greatest path distance from it</li>
+ * </ul>
+ * Generation errors such as a StackOverflowError count as failures too. Each failing
+ * property is shrunk to the smallest size, then the smallest seed, that still fails it.
+ *
+ * Usage: java MazeFuzzer [mazes] [max-size] [threads]
+ */
+public class MazeFuzzer {
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    private static final int MIN_SIZE = 5;
+    private static final int BATCH = 256;        // Mazes claimed per counter update
+    private static final int SHRINK_SEEDS = 256; // Seeds tried at each smaller size
+
+    /** A maze that broke one of the properties. */
+    private record Failure(int width, int height, long seed, String property, String detail) {
+        @Override
+        public String toString() {
+            return String.format("%s: %dx%d seed %d (%s)", property, width, height, seed, detail);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long mazes = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : 61;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int[] sizes = new int[(maxSize - MIN_SIZE) / 2 + 1];
+        for (int i = 0; i < sizes.length; i++) sizes[i] = MIN_SIZE + 2 * i;
+
+        System.out.printf("Fuzzing %,d mazes, sizes %d..%d, %d threads%n", mazes, MIN_SIZE, sizes[sizes.length - 1], threads);
+        AtomicLong next = new AtomicLong();
+        AtomicLong cells = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<Failure>>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                List<Failure> failures = new ArrayList<>();
+                Checker checker = new Checker();
+                long checkedCells = 0;
+                for (long first; (first = next.getAndAdd(BATCH)) < mazes; ) {
+                    for (long i = first; i < Math.min(mazes, first + BATCH); i++) {
+                        // Walk every width and height pair before moving on to the next seed
+                        int width = sizes[(int) (i % sizes.length)];
+                        int height = sizes[(int) (i / sizes.length % sizes.length)];
+                        long seed = i / ((long) sizes.length * sizes.length);
+                        Failure failure = checker.check(width, height, seed);
+                        if (failure != null) failures.add(failure);
+                        checkedCells += (long) width * height;
+                    }
+                }
+                cells.addAndGet(checkedCells);
+                return failures;
+            }));
+        }
+        List<Failure> failures = new ArrayList<>();
+        for (Future<List<Failure>> worker : workers) {
+            failures.addAll(worker.get());
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Validated %,d mazes (%,d cells) in %.1f s: %,.0f mazes/s, %.1f M cells/s%n",
+            mazes, cells.get(), seconds, mazes / seconds, cells.get() / seconds / 1e6);
+
+        if (failures.isEmpty()) {
+            System.out.println("All properties held.");
+            return;
+        }
+        System.out.printf("%,d failures%n", failures.size());
+        List<String> shrunkProperties = new ArrayList<>();
+        for (Failure failure : failures) {
+            if (shrunkProperties.contains(failure.property())) continue;
+            shrunkProperties.add(failure.property());
+            System.out.println("  first seen: " + failure);
+            System.out.println("  shrunk to:  " + shrink(failure));
+        }
+        System.exit(1);
+    }
+
+    // Smallest failing area first (then width), then the smallest seed at that size
+    private static Failure shrink(Failure failure) {
+        Checker checker = new Checker();
+        for (int area = MIN_SIZE * MIN_SIZE; area <= failure.width() * failure.height(); area++) {
+            for (int width = MIN_SIZE; width <= failure.width(); width += 2) {
+                if (area % width != 0) continue;
+                int height = area / width;
+                if (height % 2 == 0 || height < MIN_SIZE || height > failure.height()) continue;
+                long seeds = width == failure.width() && height == failure.height() ? failure.seed() + 1 : SHRINK_SEEDS;
+                for (long seed = 0; seed < seeds; seed++) {
+                    Failure smaller = checker.check(width, height, seed);
+                    if (smaller != null && smaller.property().equals(failure.property())) return smaller;
+                }
+            }
+        }
+        return failure;
+    }
+
+    /** Per-thread scratch space, reused across mazes of any size. */
+    private static class Checker {
+        private int[] distance = new int[0];
+        private int[] queue = new int[0];
+
+        Failure check(int width, int height, long seed) {
+            Maze maze;
+            try {
+                maze = new Maze(new ArrayMazeStorage(width, height), seed);
+            } catch (Throwable t) {
+                return new Failure(width, height, seed, "generates", t.toString());
+            }
+
+            for (int x = 0; x < width; x++) {
+                if (!maze.isWall(x, 0) || !maze.isWall(x, height - 1)) {
+                    return new Failure(width, height, seed, "border intact", "gap at column " + x);
+                }
+            }
+            for (int y = 0; y < height; y++) {
+                if (!maze.isWall(0, y) || !maze.isWall(width - 1, y)) {
+                    return new Failure(width, height, seed, "border intact", "gap at row " + y);
+                }
+            }
+
+            int startX = maze.getStartPosition().x;
+            int startY = maze.getStartPosition().y;
+            if (maze.isWall(startX, startY)) {
+                return new Failure(width, height, seed, "start on path", "start at " + startX + "," + startY);
+            }
+
+            // Count open cells and the edges between them
+            int open = 0;
+            long edges = 0;
+            for (int y = 1; y < height - 1; y++) {
+                for (int x = 1; x < width - 1; x++) {
+                    if (maze.isWall(x, y)) continue;
+                    open++;
+                    if (!maze.isWall(x + 1, y)) edges++;
+                    if (!maze.isWall(x, y + 1)) edges++;
+                }
+            }
+
+            // BFS from the start: reached cells and the greatest distance
+            int cells = width * height;
+            if (distance.length < cells) {
+                distance = new int[cells];
+                queue = new int[cells];
+            }
+            Arrays.fill(distance, 0, cells, -1);
+            int head = 0, tail = 0;
+            int start = startY * width + startX;
+            queue[tail++] = start;
+            distance[start] = 0;
+            int farthest = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell % width;
+                int y = cell / width;
+                farthest = Math.max(farthest, distance[cell]);
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    int neighbour = ny * width + nx;
+                    if (distance[neighbour] < 0 && !maze.isWall(nx, ny)) {
+                        distance[neighbour] = distance[cell] + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            if (tail != open) {
+                return new Failure(width, height, seed, "connected", tail + " of " + open + " open cells reachable");
+            }
+            if (edges != open - 1) {
+                return new Failure(width, height, seed, "acyclic", edges + " edges for " + open + " cells");
+            }
+            int goalX = maze.getGoalPosition().x;
+            int goalY = maze.getGoalPosition().y;
+            int goalDistance = distance[goalY * width + goalX];
+            if (goalDistance != farthest) {
+                return new Failure(width, height, seed, "goal is farthest",
+                    "goal at distance " + goalDistance + ", farthest " + farthest);
+            }
+            return null;
+        }
+    }
+}
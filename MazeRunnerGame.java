@@ -1,16 +1,23 @@
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class MazeRunnerGame extends JFrame {
     private static final int WINDOW_WIDTH = 800;
     private static final int WINDOW_HEIGHT = 600;
     private static final String GAME_TITLE = "Maze Runner: Escape the Labyrinth";
+    private static final String HIGH_SCORE_FILE = "highscores.log";
+    private static final String TELEMETRY_DIRECTORY = "telemetry";
     
     private CardLayout cardLayout;
     private JPanel mainPanel;
     private HomeScreen homeScreen;
     private GamePanel gamePanel;
     private GameStateManager gameStateManager;
+    private HighScoreStore highScoreStore; // null if the log could not be opened
+    private Telemetry telemetry; // null if the telemetry directory is unusable
+    private final SpectatorPublisher spectatorPublisher = SpectatorPublisher.open();
 
     public MazeRunnerGame() {
         // Set up the main window
@@ -25,8 +32,10 @@ public class MazeRunnerGame extends JFrame {
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
         gameStateManager = new GameStateManager();
-        homeScreen = new HomeScreen(this, gameStateManager);
-        gamePanel = new GamePanel(this, gameStateManager);
+        openHighScoreStore();
+        openTelemetry();
+        homeScreen = new HomeScreen(this, gameStateManager, highScoreStore);
+        gamePanel = new GamePanel(this, gameStateManager, highScoreStore, telemetry, spectatorPublisher);
 
         // Add panels to card layout
         mainPanel.add(homeScreen, "HOME");
@@ -39,6 +48,43 @@ public class MazeRunnerGame extends JFrame {
         showHomeScreen();
     }
 
+    private void openHighScoreStore() {
+        try {
+            highScoreStore = HighScoreStore.open(Paths.get(HIGH_SCORE_FILE));
+            // Flush pending group commits however the game exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    highScoreStore.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing high scores: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("Error opening high scores: " + e.getMessage());
+        }
+    }
+
+    private void openTelemetry() {
+        try {
+            telemetry = Telemetry.open(Paths.get(TELEMETRY_DIRECTORY));
+            // Write out buffered events and finish the gzip file on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    telemetry.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing telemetry: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("Error starting telemetry: " + e.getMessage());
+        }
+    }
+
+    /** Local spectators (e.g. tournament screens) subscribe here to watch the running game. */
+    public SpectatorPublisher getSpectatorPublisher() {
+        return spectatorPublisher;
+    }
+
     public void showHomeScreen() {
         gamePanel.stopTimers();
         cardLayout.show(mainPanel, "HOME");
@@ -46,7 +92,13 @@ public class MazeRunnerGame extends JFrame {
     }
 
     public void startGame() {
+        startGame(false);
+    }
+
+    public void startGame(boolean shiftingWalls) {
         cardLayout.show(mainPanel, "GAME");
+        gamePanel.setShiftingWallsMode(shiftingWalls);
+        gamePanel.resetLevelLayouts();
         gamePanel.startNewGame();
         gamePanel.requestFocusInWindow();
     }
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks a fair maze for a level: generates several seeded candidates in parallel, scores
+ * each with {@link MazeDifficulty} and keeps the one closest to the target difficulty.
+ *
+ * Candidates that are not finished when the caller's time budget runs out are cancelled
+ * and ignored, so a tight budget trades fairness for latency rather than blocking. If none
+ * finished in time, a plain maze built in the background after the previous selection is
+ * used, or failing that the first candidate to finish.
+ */
+public class MazeSelector {
+    /** The chosen maze plus how it was chosen. */
+    public static final class Selection {
+        private final Maze maze;
+        private final MazeDifficulty difficulty;
+        private final int candidatesScored;
+        private final long elapsedNanos;
+
+        Selection(Maze maze, MazeDifficulty difficulty, int candidatesScored, long elapsedNanos) {
+            this.maze = maze;
+            this.difficulty = difficulty;
+            this.candidatesScored = candidatesScored;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Maze getMaze() { return maze; }
+        public MazeDifficulty getDifficulty() { return difficulty; }
+        public int getCandidatesScored() { return candidatesScored; }
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+
+    /** One scored candidate, as returned by each generation task. */
+    private record Candidate(Maze maze, MazeDifficulty difficulty) {}
+
+    /** A plain maze being built in the background for the level most likely selected next. */
+    private record Fallback(int level, Future<Candidate> candidate) {}
+
+    private final ExecutorService pool;
+    private final SplittableRandom seeds = new SplittableRandom();
+    private Fallback fallback; // Guarded by this
+
+    public MazeSelector(int threads) {
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "maze-selector");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Selection select(int level, int candidates, long budgetMillis) {
+        return select(level, candidates, MazeDifficulty.targetFor(level), budgetMillis);
+    }
+
+    public Selection select(int level, int candidates, double targetDifficulty, long budgetMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        ExecutorCompletionService<Candidate> completed = new ExecutorCompletionService<>(pool);
+        List<Future<Candidate>> futures = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            long seed;
+            synchronized (seeds) {
+                seed = seeds.nextLong();
+            }
+            futures.add(completed.submit(() -> generate(level, seed)));
+        }
+        Future<Candidate> prebuilt = takeFallback(level);
+
+        Maze best = null;
+        MazeDifficulty bestDifficulty = null;
+        int scored = 0;
+        try {
+            for (int pending = candidates; pending > 0; pending--) {
+                Future<Candidate> future = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    if (scored > 0) break;
+                    Candidate ready = prebuilt != null && prebuilt.isDone() ? candidateOf(prebuilt) : null;
+                    if (ready != null) {
+                        best = ready.maze();
+                        bestDifficulty = ready.difficulty();
+                        scored = 1;
+                        break;
+                    }
+                    // Nothing ready: the candidates are already running, so wait for the first
+                    future = completed.take();
+                }
+                Candidate candidate = candidateOf(future);
+                if (candidate == null) continue;
+                MazeDifficulty difficulty = candidate.difficulty();
+                scored++;
+                if (best == null || Math.abs(difficulty.getScore() - targetDifficulty)
+                        < Math.abs(bestDifficulty.getScore() - targetDifficulty)) {
+                    best = candidate.maze();
+                    bestDifficulty = difficulty;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Generation checks for interrupts, so this frees the pool for the next selection
+            for (Future<Candidate> future : futures) future.cancel(true);
+            if (prebuilt != null) prebuilt.cancel(true);
+        }
+        if (best == null) throw new CancellationException("No maze candidate finished");
+
+        prepareFallback(level + 1); // Levels are usually played in order
+        return new Selection(best, bestDifficulty, scored, System.nanoTime() - start);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static Candidate generate(int level, long seed) {
+        Maze maze = new Maze(level, seed);
+        return new Candidate(maze, MazeDifficulty.of(maze));
+    }
+
+    // The prebuilt maze for this level, if any; one for another level is no longer wanted
+    private synchronized Future<Candidate> takeFallback(int level) {
+        Fallback taken = fallback;
+        fallback = null;
+        if (taken == null) return null;
+        if (taken.level() == level) return taken.candidate();
+        taken.candidate().cancel(true);
+        return null;
+    }
+
+    private synchronized void prepareFallback(int level) {
+        if (fallback != null) return;
+        long seed;
+        synchronized (seeds) {
+            seed = seeds.nextLong();
+        }
+        fallback = new Fallback(level, pool.submit(() -> generate(level, seed)));
+    }
+
+    // Null if generation failed or was cancelled
+    private static Candidate candidateOf(Future<Candidate> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    // Reports selection latency for different candidate and thread counts
+    public static void main(String[] args) {
+        int[] levels = {10, 40, 100};
+        int[] candidateCounts = {1, 2, 4, 8, 16, 32};
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) threadCounts.add(threads);
+        threadCounts.add(cores);
+
+        System.out.println("Cores: " + cores + "  (median ms per selection, rms = RMS distance from target over all thread counts)");
+        for (int level : levels) {
+            System.out.printf("%nLevel %d, target %.0f%n", level, MazeDifficulty.targetFor(level));
+            System.out.printf("%8s", "K \\ thr");
+            for (int threads : threadCounts) System.out.printf("%10d", threads);
+            System.out.printf("%12s%n", "rms");
+            for (int k : candidateCounts) {
+                System.out.printf("%8d", k);
+                // Fairness depends on K, not on the thread count, so pool every selection for it
+                double sumSquares = 0;
+                int selections = 0;
+                for (int threads : threadCounts) {
+                    MazeSelector selector = new MazeSelector(threads);
+                    int runs = 15;
+                    long[] times = new long[runs];
+                    for (int run = -5; run < runs; run++) { // First 5 runs warm up
+                        Selection selection = selector.select(level, k, 60_000);
+                        if (run < 0) continue;
+                        times[run] = selection.getElapsedNanos();
+                        double error = selection.getDifficulty().getScore() - MazeDifficulty.targetFor(level);
+                        sumSquares += error * error;
+                        selections++;
+                    }
+                    selector.shutdown();
+                    java.util.Arrays.sort(times);
+                    System.out.printf("%10.2f", times[runs / 2] / 1e6);
+                }
+                System.out.printf("%12.1f%n", Math.sqrt(sumSquares / selections));
+            }
+        }
+    }
+}
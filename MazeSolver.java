@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * Base class for path queries between two cells of a {@link Maze}.
+ *
+ * Cells are packed as {@code y * width + x}. Solvers keep their scratch arrays between
+ * queries and mark visited cells with a per-query stamp instead of clearing, so a query
+ * only touches the cells it actually explores. Instances are not thread-safe.
+ */
+public abstract class MazeSolver {
+    // Directions: right, down, left, up
+    protected static final int[] DX = {1, 0, -1, 0};
+    protected static final int[] DY = {0, 1, 0, -1};
+
+    private static final int[] NO_PATH = new int[0];
+
+    protected Maze maze;
+    protected int width;
+    protected int height;
+    protected int[] parent = new int[0];
+    protected int[] visited = new int[0]; // Equal to stamp when visited in this query
+    protected int stamp;
+    protected long expandedNodes;
+
+    public static int pack(int x, int y, int width) {
+        return y * width + x;
+    }
+
+    /** Shortest path from one packed cell to another, both included, or an empty array if unreachable. */
+    public final int[] solve(Maze maze, int from, int to) {
+        prepare(maze);
+        if (maze.isWall(from % width, from / width) || maze.isWall(to % width, to / width)) {
+            return NO_PATH;
+        }
+        if (from == to) {
+            return new int[] {from};
+        }
+        int meeting = search(from, to);
+        return meeting < 0 ? NO_PATH : buildPath(from, to, meeting);
+    }
+
+    /** Name shown in benchmark output. */
+    public abstract String getName();
+
+    /** Nodes taken off the open list (or frontier) since the last reset. */
+    public long getExpandedNodes() { return expandedNodes; }
+
+    public void resetExpandedNodes() { expandedNodes = 0; }
+
+    /**
+     * Runs the search. Returns the cell where the search finished (normally {@code to}), or
+     * -1 if there is no path. {@link #parent} must lead from that cell back to {@code from}.
+     */
+    protected abstract int search(int from, int to);
+
+    /** Rebuilds the path from parent links; solvers that search from both ends override this. */
+    protected int[] buildPath(int from, int to, int meeting) {
+        int length = 1;
+        for (int cell = to; cell != from; cell = parent[cell]) length++;
+        int[] path = new int[length];
+        int cell = to;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            if (i > 0) cell = parent[cell];
+        }
+        return path;
+    }
+
+    protected boolean isOpen(int x, int y) {
+        return x > 0 && y > 0 && x < width - 1 && y < height - 1 && !maze.isWall(x, y);
+    }
+
+    protected int manhattan(int a, int b) {
+        return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+    }
+
+    private void prepare(Maze maze) {
+        this.maze = maze;
+        width = maze.getWidth();
+        height = maze.getHeight();
+        int cells = width * height;
+        if (visited.length < cells) {
+            growScratch(cells);
+            stamp = 0;
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            // Stamps wrapped: clear once and start again
+            clearStamps();
+            stamp = 1;
+        }
+    }
+
+    /** Zeroes every stamp-marked array after the stamp wraps; subclasses extend it for their own. */
+    protected void clearStamps() {
+        Arrays.fill(visited, 0);
+    }
+
+    /** Resizes per-cell scratch arrays; subclasses extend it for their own arrays. */
+    protected void growScratch(int cells) {
+        parent = new int[cells];
+        visited = new int[cells];
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Backing store for a maze's cells. {@link Maze} and the renderer only go through this
+ * accessor, so very large mazes can live outside the Java heap.
+ */
+public interface MazeStorage {
+    /** Byte-addressed scratch memory used while generating; closing it releases the memory. */
+    interface Scratch extends AutoCloseable {
+        byte get(long index);
+
+        void set(long index, byte value);
+
+        @Override
+        default void close() {}
+    }
+
+    int getWidth();
+    int getHeight();
+
+    /** Cell code at (x, y): {@link Maze#WALL} or {@link Maze#PATH} (array storage may also hold START/GOAL). */
+    int get(int x, int y);
+
+    void set(int x, int y, int value);
+
+    /** Sets every cell to {@link Maze#WALL}; implementations may override with a bulk fill. */
+    default void fillWalls() {
+        for (int y = 0; y < getHeight(); y++) {
+            for (int x = 0; x < getWidth(); x++) {
+                set(x, y, Maze.WALL);
+            }
+        }
+    }
+
+    /** Zeroed scratch memory for generation, on the heap unless the implementation overrides it. */
+    default Scratch allocateScratch(long bytes) {
+        byte[] array = new byte[Math.toIntExact(bytes)];
+        return new Scratch() {
+            @Override
+            public byte get(long index) { return array[(int) index]; }
+
+            @Override
+            public void set(long index, byte value) { array[(int) index] = value; }
+        };
+    }
+
+    /** Frees any memory held outside the heap. */
+    default void close() {}
+}
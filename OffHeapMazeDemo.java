@@ -0,0 +1,76 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Generates and plays a huge maze stored off-heap, reporting heap use and GC pauses.
+ *
+ * Usage: java -Xmx32m OffHeapMazeDemo [size] [mapped-file]
+ * With a file the wall bitmap and scratch memory are memory-mapped. Without one they are
+ * allocated natively, which counts against -XX:MaxDirectMemorySize (default: the heap size),
+ * so pass e.g. -XX:MaxDirectMemorySize=512m as well.
+ */
+public class OffHeapMazeDemo {
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        size = size % 2 == 0 ? size + 1 : size;
+        Path file = args.length > 1 ? Paths.get(args[1]) : null;
+
+        AtomicLong gcCount = new AtomicLong();
+        AtomicLong maxPauseMillis = new AtomicLong();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+                GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                gcCount.incrementAndGet();
+                maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }, null, null);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Max heap: %d MB, maze: %dx%d (%,d cells, %d MB as int[][])%n",
+            runtime.maxMemory() >> 20, size, size, (long) size * size, (long) size * size * 4 >> 20);
+
+        long start = System.nanoTime();
+        MazeStorage storage = file == null
+            ? OffHeapMazeStorage.allocate(size, size)
+            : OffHeapMazeStorage.map(file, size, size);
+        Maze maze = new Maze(storage, 42);
+        System.out.printf("Generated in %.1f s, goal at (%d, %d)%n",
+            (System.nanoTime() - start) / 1e9, maze.getGoalPosition().x, maze.getGoalPosition().y);
+        report("after generation", runtime, gcCount, maxPauseMillis);
+
+        // Random walk through the accessor, as the game would on key presses
+        Random random = new Random(1);
+        int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+        long moves = 0;
+        int attempts = 50_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < attempts; i++) {
+            int[] dir = directions[random.nextInt(4)];
+            if (maze.movePlayer(dir[0], dir[1])) moves++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d move attempts (%,d moves) in %.2f s: %.1f M attempts/s%n",
+            attempts, moves, seconds, attempts / seconds / 1e6);
+        report("after play", runtime, gcCount, maxPauseMillis);
+
+        storage.close();
+        if (file != null) Files.deleteIfExists(file);
+    }
+
+    private static void report(String phase, Runtime runtime, AtomicLong gcCount, AtomicLong maxPauseMillis) {
+        System.out.printf("  %-17s heap used %d MB, %d GCs, longest pause %d ms%n", phase,
+            (runtime.totalMemory() - runtime.freeMemory()) >> 20, gcCount.get(), maxPauseMillis.get());
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores walls as a bitmap in native memory (one bit per cell), either allocated from an
+ * {@link Arena} or memory-mapped from a file. A 20000x20000 maze needs 50 MB here instead
+ * of 1.6 GB of int[][] on the heap, and none of it is scanned by the garbage collector.
+ *
+ * Only WALL and PATH are stored; {@link Maze} overlays the start and goal cells itself.
+ */
+public class OffHeapMazeStorage implements MazeStorage {
+    private final int width;
+    private final int height;
+    private final Arena arena;
+    private final MemorySegment walls;
+    private final Path scratchDirectory; // Non-null when scratch memory should be file-backed too
+
+    private OffHeapMazeStorage(int width, int height, Arena arena, MemorySegment walls, Path scratchDirectory) {
+        this.width = width;
+        this.height = height;
+        this.arena = arena;
+        this.walls = walls;
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    /** Allocates the bitmap in native memory. */
+    public static OffHeapMazeStorage allocate(int width, int height) {
+        Arena arena = Arena.ofShared();
+        MemorySegment walls = arena.allocate(bitmapBytes(width, height), 8);
+        return new OffHeapMazeStorage(width, height, arena, walls, null);
+    }
+
+    /** Maps the bitmap from a file (created or resized as needed); scratch memory is mapped beside it. */
+    public static OffHeapMazeStorage map(Path file, int width, int height) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment walls = channel.map(FileChannel.MapMode.READ_WRITE, 0, bitmapBytes(width, height), arena);
+            Path directory = file.toAbsolutePath().getParent();
+            return new OffHeapMazeStorage(width, height, arena, walls, directory);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public int get(int x, int y) {
+        long bit = (long) y * width + x;
+        byte bits = walls.get(ValueLayout.JAVA_BYTE, bit >>> 3);
+        return (bits >>> (bit & 7) & 1) != 0 ? Maze.WALL : Maze.PATH;
+    }
+
+    @Override
+    public void set(int x, int y, int value) {
+        long bit = (long) y * width + x;
+        long offset = bit >>> 3;
+        int mask = 1 << (bit & 7);
+        byte bits = walls.get(ValueLayout.JAVA_BYTE, offset);
+        bits = (byte) (value == Maze.WALL ? bits | mask : bits & ~mask);
+        walls.set(ValueLayout.JAVA_BYTE, offset, bits);
+    }
+
+    /** Sets every cell to WALL in one bulk fill. */
+    @Override
+    public void fillWalls() {
+        walls.fill((byte) 0xFF);
+    }
+
+    /** Native scratch memory, or memory-mapped beside the bitmap file; freed on close. */
+    @Override
+    public Scratch allocateScratch(long bytes) {
+        Arena scratchArena = Arena.ofConfined();
+        try {
+            return new SegmentScratch(scratchArena, mapScratch(scratchArena, bytes));
+        } catch (RuntimeException e) {
+            scratchArena.close();
+            throw e;
+        }
+    }
+
+    private MemorySegment mapScratch(Arena scratchArena, long bytes) {
+        if (scratchDirectory == null) {
+            return scratchArena.allocate(bytes, 8);
+        }
+        try {
+            Path file = Files.createTempFile(scratchDirectory, "maze-scratch", ".tmp");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes, scratchArena);
+            } finally {
+                try {
+                    Files.delete(file); // The mapping stays valid until the arena closes
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit(); // Windows refuses to delete mapped files
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not map maze scratch file", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private record SegmentScratch(Arena arena, MemorySegment segment) implements Scratch {
+        @Override
+        public byte get(long index) { return segment.get(ValueLayout.JAVA_BYTE, index); }
+
+        @Override
+        public void set(long index, byte value) { segment.set(ValueLayout.JAVA_BYTE, index, value); }
+
+        @Override
+        public void close() { arena.close(); }
+    }
+
+    private static long bitmapBytes(int width, int height) {
+        return ((long) width * height + 7) >>> 3;
+    }
+}
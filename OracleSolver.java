@@ -0,0 +1,36 @@
+/**
+ * Answers path queries from a {@link DistanceOracle} instead of searching: the path length
+ * is known up front and each cell is one O(1) next-step lookup. The oracle is built on the
+ * first query against a maze and reused until a different maze is queried, so this solver
+ * is only for mazes whose walls do not change.
+ */
+public class OracleSolver extends MazeSolver {
+    private DistanceOracle oracle;
+    private Maze oracleMaze;
+
+    @Override
+    public String getName() { return "Distance oracle"; }
+
+    @Override
+    protected int search(int from, int to) {
+        if (maze != oracleMaze) {
+            oracle = new DistanceOracle(maze);
+            oracleMaze = maze;
+        }
+        return to; // A perfect maze is connected, so there is always a path
+    }
+
+    @Override
+    protected int[] buildPath(int from, int to, int meeting) {
+        int[] path = new int[oracle.distance(from, to) + 1];
+        int cell = from;
+        for (int i = 0; i < path.length; i++) {
+            path[i] = cell;
+            if (cell != to) {
+                int d = oracle.nextStep(cell, to);
+                cell += DY[d] * width + DX[d];
+            }
+        }
+        return path;
+    }
+}
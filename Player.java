@@ -15,6 +15,9 @@ public class Player {
         return new Point(position);  // Return a copy to prevent external modification
     }
 
+    public int getX() { return position.x; }
+    public int getY() { return position.y; }
+
     public void setPosition(int x, int y) {
         position.setLocation(x, y);
     }
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Headless playback of replays written by {@link ReplayRecorder}.
+ *
+ * Rebuilds each level's maze from its recorded seed and re-applies moves and state
+ * transitions to a private {@link GameStateManager}. {@link #seek(long)} jumps to the
+ * nearest checkpoint at or before the requested time and decodes forward from there.
+ * Shifting-walls replays re-run each tick's flips from the level seed, exactly as the game
+ * did; a recorded move that the rebuilt maze rejects means playback has diverged.
+ */
+public class ReplayPlayer {
+    private final byte[] data;
+    private final long recordedAt;
+    private final boolean shiftingWallsMode;
+    private final int bodyStart;
+    private int bodyEnd;
+    private long[] checkpointTimes;
+    private int[] checkpointOffsets;
+
+    private final GameStateManager state = new GameStateManager();
+    private Maze maze;
+    private ShiftingWalls shiftingWalls; // Non-null while replaying a shifting-walls level
+    private int position;
+    private long time;
+    private long moveCount;
+
+    public ReplayPlayer(byte[] data) {
+        this.data = data;
+        position = 0;
+        if (data.length < 14 || readInt() != ReplayRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a replay file");
+        }
+        int version = readByte();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version: " + version);
+        }
+        shiftingWallsMode = readByte() == ReplayRecorder.MODE_SHIFTING_WALLS;
+        recordedAt = readLong();
+        bodyStart = position;
+        readIndex();
+    }
+
+    public static ReplayPlayer load(Path file) throws IOException {
+        return new ReplayPlayer(Files.readAllBytes(file));
+    }
+
+    /** Applies the next record. Returns false once the end of the replay is reached. */
+    public boolean step() {
+        if (position >= bodyEnd) return false;
+        long header = readVarint();
+        time += header >>> 3;
+        int tag = (int) (header & 7);
+        switch (tag) {
+            case ReplayRecorder.TAG_RIGHT:
+            case ReplayRecorder.TAG_DOWN:
+            case ReplayRecorder.TAG_LEFT:
+            case ReplayRecorder.TAG_UP:
+                if (!maze.movePlayer(ReplayRecorder.DX[tag], ReplayRecorder.DY[tag])) {
+                    throw new IllegalStateException("Recorded move " + tag + " from (" + maze.getPlayerX() + ", "
+                        + maze.getPlayerY() + ") at " + time + " ms is blocked: playback has diverged");
+                }
+                moveCount++;
+                break;
+            case ReplayRecorder.TAG_STATE:
+                applyState((int) readVarint());
+                break;
+            case ReplayRecorder.TAG_LEVEL:
+                readLevel();
+                break;
+            case ReplayRecorder.TAG_CHECKPOINT:
+                readCheckpoint(false);
+                break;
+            default:
+                position = bodyEnd;
+                return false;
+        }
+        return true;
+    }
+
+    /** Positions playback at the given time (milliseconds since recording started). */
+    public void seek(long targetTime) {
+        int checkpoint = -1;
+        int low = 0, high = checkpointTimes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkpointTimes[mid] <= targetTime) {
+                checkpoint = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Only jump if the checkpoint is ahead of us or we need to go backwards
+        if (checkpoint >= 0 && (targetTime < time || checkpointOffsets[checkpoint] > position)) {
+            position = checkpointOffsets[checkpoint];
+            readVarint(); // Record header; the index already holds its time
+            time = checkpointTimes[checkpoint];
+            readCheckpoint(true);
+        } else if (targetTime < time) {
+            rewind();
+        }
+
+        while (position < bodyEnd && peekTime() <= targetTime) {
+            step();
+        }
+    }
+
+    public void rewind() {
+        position = bodyStart;
+        time = 0;
+        moveCount = 0;
+        maze = null;
+        shiftingWalls = null;
+        state.resetGame();
+    }
+
+    public long getTime() { return time; }
+    public long getDuration() { return scanDuration(); }
+    public long getRecordedAt() { return recordedAt; }
+    public long getMoveCount() { return moveCount; }
+    public Maze getMaze() { return maze; }
+    public boolean isShiftingWalls() { return shiftingWallsMode; }
+    public GameStateManager getState() { return state; }
+
+    private void applyState(int kind) {
+        switch (kind) {
+            case ReplayRecorder.STATE_START_LEVEL:
+                state.startLevel();
+                break;
+            case ReplayRecorder.STATE_COMPLETE_LEVEL:
+                state.completeLevel();
+                break;
+            case ReplayRecorder.STATE_TICK:
+                state.updateTime(1);
+                if (shiftingWalls != null) shiftingWalls.tick();
+                break;
+            case ReplayRecorder.STATE_RESET:
+                state.resetGame();
+                break;
+            case ReplayRecorder.STATE_ENEMY_CATCH:
+                state.updateTime(EnemySystem.CATCH_PENALTY_SECONDS);
+                break;
+            case ReplayRecorder.STATE_TIME_BONUS:
+                state.addTime(ItemLayer.TIME_BONUS_SECONDS);
+                break;
+            case ReplayRecorder.STATE_KEY:
+                state.addScore(ItemLayer.KEY_POINTS);
+                break;
+            default:
+                break; // Game over, pause and resume carry no state of their own
+        }
+    }
+
+    private void readLevel() {
+        int level = (int) readVarint();
+        long seed = readLong();
+        int width = (int) readVarint();
+        int height = (int) readVarint();
+        loadMaze(level, seed);
+        if (maze.getWidth() != width || maze.getHeight() != height) {
+            throw new IllegalStateException("Replay maze size " + width + "x" + height
+                + " does not match regenerated maze " + maze.getWidth() + "x" + maze.getHeight());
+        }
+    }
+
+    private void readCheckpoint(boolean apply) {
+        int level = (int) readVarint();
+        long seed = readLong();
+        int playerX = (int) readVarint();
+        int playerY = (int) readVarint();
+        int score = (int) readVarint();
+        int timeRemaining = (int) readVarint();
+        boolean active = readByte() != 0;
+        long moves = readVarint();
+        if (apply) {
+            moveCount = moves;
+            // Shifting-walls checkpoints are level starts, where the walls are as generated
+            if (maze == null || maze.getSeed() != seed || shiftingWallsMode) {
+                loadMaze(level, seed);
+            }
+            maze.placePlayer(playerX, playerY);
+            state.restore(level, score, timeRemaining, active);
+        }
+    }
+
+    private void loadMaze(int level, long seed) {
+        maze = new Maze(level, seed);
+        shiftingWalls = shiftingWallsMode ? new ShiftingWalls(maze, seed) : null;
+    }
+
+    private long peekTime() {
+        int saved = position;
+        long header = readVarint();
+        position = saved;
+        return time + (header >>> 3);
+    }
+
+    private long scanDuration() {
+        int saved = position;
+        long end = 0;
+        position = bodyStart;
+        int last = checkpointOffsets.length - 1;
+        if (last >= 0) {
+            // Only the tail after the last checkpoint needs walking
+            position = checkpointOffsets[last];
+            end = checkpointTimes[last];
+            readVarint();
+            readCheckpoint(false);
+        }
+        while (position < bodyEnd) {
+            long header = readVarint();
+            end += header >>> 3;
+            skipPayload((int) (header & 7));
+        }
+        position = saved;
+        return end;
+    }
+
+    private void skipPayload(int tag) {
+        switch (tag) {
+            case ReplayRecorder.TAG_STATE:
+                readVarint();
+                break;
+            case ReplayRecorder.TAG_LEVEL:
+                readVarint();
+                readLong();
+                readVarint();
+                readVarint();
+                break;
+            case ReplayRecorder.TAG_CHECKPOINT:
+                readCheckpoint(false);
+                break;
+            case ReplayRecorder.TAG_END:
+                position = bodyEnd;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void readIndex() {
+        int trailer = data.length - 8;
+        position = trailer + 4;
+        if (trailer > bodyStart && readInt() == ReplayRecorder.MAGIC) {
+            position = trailer;
+            bodyEnd = readInt();
+            position = bodyEnd;
+            int count = (int) readVarint();
+            checkpointTimes = new long[count];
+            checkpointOffsets = new int[count];
+            long time = 0;
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                time += readVarint();
+                offset += (int) readVarint();
+                checkpointTimes[i] = time;
+                checkpointOffsets[i] = offset;
+            }
+        } else {
+            // Truncated recording (e.g. the game was killed): play up to the last complete
+            // record, no seeking
+            bodyEnd = data.length;
+            checkpointTimes = new long[0];
+            checkpointOffsets = new int[0];
+            position = bodyStart;
+            int complete = bodyStart;
+            try {
+                while (position < data.length) {
+                    int tag = (int) (readVarint() & 7);
+                    if (tag == ReplayRecorder.TAG_END) break;
+                    skipPayload(tag);
+                    complete = position;
+                }
+            } catch (IllegalArgumentException e) {
+                // The last record was cut off part way
+            }
+            bodyEnd = complete;
+        }
+        position = bodyStart;
+    }
+
+    private byte readByte() {
+        if (position >= data.length) {
+            throw new IllegalArgumentException("Replay ends mid-record at byte " + position);
+        }
+        return data[position++];
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (readByte() & 0xFF);
+        }
+        return value;
+    }
+
+    private long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (readByte() & 0xFF);
+        }
+        return value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ReplayPlayer <replay.mrr> [seekMillis]");
+            return;
+        }
+        ReplayPlayer player = load(Paths.get(args[0]));
+
+        long start = System.nanoTime();
+        while (player.step()) {
+            // Headless: just apply every record
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Played %d moves (%d ms of game time) in %.2f ms: %.0f moves/s%n",
+            player.getMoveCount(), player.getTime(), elapsed / 1e6,
+            player.getMoveCount() / Math.max(elapsed / 1e9, 1e-9));
+        System.out.printf("Final state: level %d, score %d%n",
+            player.getState().getCurrentLevel(), player.getState().getScore());
+
+        if (args.length > 1) {
+            long target = Long.parseLong(args[1]);
+            start = System.nanoTime();
+            player.seek(target);
+            elapsed = System.nanoTime() - start;
+            System.out.printf("Seek to %d ms took %.3f ms: level %d, player at (%d, %d)%n",
+                target, elapsed / 1e6, player.getState().getCurrentLevel(),
+                player.getMaze().getPlayerX(), player.getMaze().getPlayerY());
+        }
+    }
+}
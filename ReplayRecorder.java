@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Records a game into a compact byte stream that {@link ReplayPlayer} can play back.
+ *
+ * Every record starts with one varint holding the milliseconds since the previous record
+ * shifted left by 3, with a 3-bit tag in the low bits. Tags 0-3 are moves and double as the
+ * 2-bit direction code, so a typical move costs a single byte. Checkpoints are written at
+ * every level start and every {@link #CHECKPOINT_INTERVAL} moves so playback can seek without
+ * replaying from the start; their offsets are also written into a footer index.
+ *
+ * In shifting-walls mode the walls depend on every flip since the level started, so only
+ * level starts are checkpointed. The flips themselves are not recorded: they follow from
+ * the level seed and the player's moves, and playback re-runs them on each tick.
+ *
+ * Recording only appends to an in-memory buffer, so it is safe to call from keyPressed.
+ */
+public class ReplayRecorder {
+    static final int MAGIC = 0x4D52524C; // "MRRL"
+    static final int VERSION = 3;
+
+    // Game modes (header byte after the version)
+    static final int MODE_STATIC = 0;
+    static final int MODE_SHIFTING_WALLS = 1;
+
+    // Record tags (low 3 bits of the record header)
+    static final int TAG_RIGHT = 0;
+    static final int TAG_DOWN = 1;
+    static final int TAG_LEFT = 2;
+    static final int TAG_UP = 3;
+    static final int TAG_STATE = 4;
+    static final int TAG_LEVEL = 5;
+    static final int TAG_CHECKPOINT = 6;
+    static final int TAG_END = 7;
+
+    // Directions indexed by tag: right, down, left, up
+    static final int[] DX = {1, 0, -1, 0};
+    static final int[] DY = {0, 1, 0, -1};
+
+    // GameStateManager transitions
+    public static final int STATE_START_LEVEL = 0;
+    public static final int STATE_COMPLETE_LEVEL = 1;
+    public static final int STATE_TICK = 2;
+    public static final int STATE_GAME_OVER = 3;
+    public static final int STATE_RESET = 4;
+    public static final int STATE_PAUSE = 5;
+    public static final int STATE_RESUME = 6;
+    public static final int STATE_ENEMY_CATCH = 7;
+    public static final int STATE_TIME_BONUS = 8;
+    public static final int STATE_KEY = 9;
+
+    static final int CHECKPOINT_INTERVAL = 256; // Moves between checkpoints
+
+    private final GameStateManager gameStateManager;
+    private final long startNanos;
+    private final boolean shiftingWalls;
+    private byte[] buffer = new byte[4096];
+    private int size;
+    private long lastTime;
+    private Maze maze;
+    private int movesSinceCheckpoint;
+    private long moves; // Since recording started, so seeking can restore the count
+    private long[] checkpointTimes = new long[16];
+    private int[] checkpointOffsets = new int[16];
+    private int checkpointCount;
+    private boolean finished;
+
+    public ReplayRecorder(GameStateManager gameStateManager, boolean shiftingWalls) {
+        this.gameStateManager = gameStateManager;
+        this.startNanos = System.nanoTime();
+        this.shiftingWalls = shiftingWalls;
+        writeInt(MAGIC);
+        writeByte(VERSION);
+        writeByte(shiftingWalls ? MODE_SHIFTING_WALLS : MODE_STATIC);
+        writeLong(System.currentTimeMillis());
+    }
+
+    // Call whenever a new maze is put in play
+    public void recordLevel(Maze maze) {
+        if (finished) return;
+        this.maze = maze;
+        writeHeader(TAG_LEVEL);
+        writeVarint(gameStateManager.getCurrentLevel());
+        writeLong(maze.getSeed());
+        writeVarint(maze.getWidth());
+        writeVarint(maze.getHeight());
+        writeCheckpoint();
+    }
+
+    // Call after a successful Maze.movePlayer(dx, dy)
+    public void recordMove(int dx, int dy) {
+        if (finished) return;
+        int tag = dx > 0 ? TAG_RIGHT : dy > 0 ? TAG_DOWN : dx < 0 ? TAG_LEFT : TAG_UP;
+        writeHeader(tag);
+        moves++;
+        if (++movesSinceCheckpoint >= CHECKPOINT_INTERVAL && !shiftingWalls) {
+            writeCheckpoint();
+        }
+    }
+
+    public void recordState(int kind) {
+        if (finished) return;
+        writeHeader(TAG_STATE);
+        writeVarint(kind);
+    }
+
+    /** Closes the stream and returns the encoded replay. Further records are ignored. */
+    public byte[] finish() {
+        if (!finished) {
+            writeHeader(TAG_END);
+            int footerOffset = size;
+            writeVarint(checkpointCount);
+            long previousTime = 0;
+            int previousOffset = 0;
+            for (int i = 0; i < checkpointCount; i++) {
+                writeVarint(checkpointTimes[i] - previousTime);
+                writeVarint(checkpointOffsets[i] - previousOffset);
+                previousTime = checkpointTimes[i];
+                previousOffset = checkpointOffsets[i];
+            }
+            writeInt(footerOffset);
+            writeInt(MAGIC);
+            finished = true;
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Finishes the recording and writes it to the given directory off the calling thread. The
+     * file appears under its final name only once complete.
+     */
+    public void saveAsync(Path directory) {
+        byte[] data = finish();
+        Thread writer = new Thread(() -> {
+            try {
+                Files.createDirectories(directory);
+                Path file = directory.resolve("replay-" + System.currentTimeMillis() + ".mrr");
+                Path partial = directory.resolve(file.getFileName() + ".tmp");
+                Files.write(partial, data);
+                Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Error saving replay: " + e.getMessage());
+            }
+        }, "replay-writer");
+        writer.setDaemon(false); // Let the write complete even if the game is exiting
+        writer.start();
+    }
+
+    private void writeCheckpoint() {
+        movesSinceCheckpoint = 0;
+        if (maze == null) return;
+        int offset = size;
+        writeHeader(TAG_CHECKPOINT);
+        writeVarint(gameStateManager.getCurrentLevel());
+        writeLong(maze.getSeed());
+        writeVarint(maze.getPlayerX());
+        writeVarint(maze.getPlayerY());
+        writeVarint(gameStateManager.getScore());
+        writeVarint(gameStateManager.getTimeRemaining());
+        writeByte(gameStateManager.isGameActive() ? 1 : 0);
+        writeVarint(moves);
+
+        if (checkpointCount == checkpointTimes.length) {
+            checkpointTimes = Arrays.copyOf(checkpointTimes, checkpointCount * 2);
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+        }
+        checkpointTimes[checkpointCount] = lastTime;
+        checkpointOffsets[checkpointCount] = offset;
+        checkpointCount++;
+    }
+
+    private void writeHeader(int tag) {
+        long now = (System.nanoTime() - startNanos) / 1_000_000;
+        long delta = Math.max(0, now - lastTime);
+        lastTime += delta;
+        writeVarint((delta << 3) | tag);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
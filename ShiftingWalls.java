@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shifting-walls mode: corridors close and new ones open while the level is played.
+ *
+ * Every flip closes one open corridor and opens a nearby closed one that reconnects the
+ * two halves, so the maze stays a spanning tree and the goal is always reachable. The
+ * tree is mirrored in a {@link LinkCutForest} rooted at the goal, which answers "is this
+ * still connected", "how far to the goal" and "which way next" in O(log n) amortized time
+ * per query, instead of a full BFS after every change.
+ */
+public class ShiftingWalls {
+    // Directions: right, down, left, up
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    private static final int SEARCH_RADIUS = 6;  // How far from the closed corridor to look for a new one
+    private static final int MAX_ATTEMPTS = 64;
+    private static final int ROOMS_PER_FLIP = 64; // One extra flip per game second per 64 rooms
+
+    /** Notified after each successful flip with the corridor cells that closed and opened. */
+    public interface Listener {
+        void wallsShifted(int closedX, int closedY, int openedX, int openedY);
+    }
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    private final int goal;
+    private final LinkCutForest forest;
+    private final Random random;
+    private final List<Listener> listeners = new ArrayList<>();
+    private long flips;
+
+    public ShiftingWalls(Maze maze, long seed) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.goal = node(maze.getGoalPosition().x, maze.getGoalPosition().y);
+        this.forest = new LinkCutForest(width * height);
+        this.random = new Random(seed);
+        buildForest();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Closes a random open corridor and opens another that keeps every room connected.
+     * Returns false if no replacement was found nearby (the maze is left unchanged).
+     */
+    public boolean flip() {
+        int closeX, closeY;
+        do {
+            // Corridor cells sit between two rooms: exactly one coordinate is even
+            closeX = 1 + random.nextInt(width - 2);
+            closeY = 1 + random.nextInt(height - 2);
+        } while ((closeX + closeY) % 2 == 0 || maze.isWall(closeX, closeY)
+            || (closeX == maze.getPlayerX() && closeY == maze.getPlayerY()));
+
+        int corridor = node(closeX, closeY);
+        int[] rooms = roomsBeside(closeX, closeY);
+        forest.cut(rooms[0], corridor);
+        forest.cut(corridor, rooms[1]);
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int openX = closeX + random.nextInt(2 * SEARCH_RADIUS + 1) - SEARCH_RADIUS;
+            int openY = closeY + random.nextInt(2 * SEARCH_RADIUS + 1) - SEARCH_RADIUS;
+            if (openX <= 0 || openY <= 0 || openX >= width - 1 || openY >= height - 1) continue;
+            if ((openX + openY) % 2 == 0 || !maze.isWall(openX, openY)) continue;
+            if (openX == closeX && openY == closeY) continue;
+
+            int[] candidate = roomsBeside(openX, openY);
+            if (forest.connected(candidate[0], candidate[1])) continue; // Would create a loop
+
+            int opened = node(openX, openY);
+            forest.link(candidate[0], opened);
+            forest.link(opened, candidate[1]);
+            maze.setWall(closeX, closeY, true);
+            maze.setWall(openX, openY, false);
+            flips++;
+            for (Listener listener : listeners) {
+                listener.wallsShifted(closeX, closeY, openX, openY);
+            }
+            return true;
+        }
+
+        // Nothing nearby bridges the gap: put the corridor back
+        forest.link(rooms[0], corridor);
+        forest.link(corridor, rooms[1]);
+        return false;
+    }
+
+    /** Flips as many walls as one game second calls for: bigger mazes shift more. */
+    public void tick() {
+        int count = 1 + (width / 2) * (height / 2) / ROOMS_PER_FLIP;
+        for (int i = 0; i < count; i++) {
+            flip();
+        }
+    }
+
+    /** Path length from (x, y) to the goal. */
+    public int distanceToGoal(int x, int y) {
+        return forest.depth(goal, node(x, y));
+    }
+
+    /** Direction index (right, down, left, up) of the next step toward the goal, or -1 at the goal. */
+    public int nextStepTowardGoal(int x, int y) {
+        int next = forest.nextToward(goal, node(x, y));
+        if (next == 0) return -1;
+        int nextX = (next - 1) % width;
+        int nextY = (next - 1) / width;
+        for (int d = 0; d < 4; d++) {
+            if (x + DX[d] == nextX && y + DY[d] == nextY) return d;
+        }
+        return -1;
+    }
+
+    public long getFlipCount() { return flips; }
+
+    // Hangs every open cell under its BFS parent from the goal: a valid forest in O(cells)
+    private void buildForest() {
+        int[] queue = new int[width * height];
+        boolean[] seen = new boolean[width * height];
+        int head = 0, tail = 0;
+        int start = goal - 1;
+        queue[tail++] = start;
+        seen[start] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                int next = ny * width + nx;
+                if (maze.isWall(nx, ny) || seen[next]) continue;
+                seen[next] = true;
+                forest.attach(next + 1, cell + 1);
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    // The two rooms joined by the corridor cell at (x, y)
+    private int[] roomsBeside(int x, int y) {
+        if (x % 2 == 0) {
+            return new int[] {node(x - 1, y), node(x + 1, y)};
+        }
+        return new int[] {node(x, y - 1), node(x, y + 1)};
+    }
+
+    private int node(int x, int y) {
+        return y * width + x + 1;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Random;
+
+/**
+ * Cost of keeping goal distances current in shifting-walls mode: incremental link-cut
+ * updates versus a full BFS from the goal after every flip. Also cross-checks the
+ * incremental distances against BFS and that the maze is still a spanning tree.
+ *
+ * Usage: java ShiftingWallsBenchmark [flips-per-size]
+ */
+public class ShiftingWallsBenchmark {
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    public static void main(String[] args) {
+        int flips = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int[] sizes = {51, 201, 501, 1001, 2001};
+
+        System.out.printf("%-6s %18s %18s %10s%n", "Size", "incremental ns/flip", "full BFS ns/flip", "speedup");
+        for (int size : sizes) {
+            Maze maze = new Maze(new ArrayMazeStorage(size, size), size);
+            ShiftingWalls walls = new ShiftingWalls(maze, size);
+            int[] distance = new int[size * size];
+            int[] queue = new int[size * size];
+            Random random = new Random(size);
+            long checksum = 0;
+
+            // Incremental: flip, then ask for the player's distance and next step
+            long start = System.nanoTime();
+            for (int i = 0; i < flips; i++) {
+                walls.flip();
+                checksum += walls.distanceToGoal(maze.getPlayerX(), maze.getPlayerY());
+                checksum += walls.nextStepTowardGoal(maze.getPlayerX(), maze.getPlayerY());
+            }
+            long incremental = (System.nanoTime() - start) / flips;
+
+            // Full recompute: flip, then rebuild the whole distance field
+            int fullFlips = Math.max(20, flips * 51 / size);
+            start = System.nanoTime();
+            for (int i = 0; i < fullFlips; i++) {
+                walls.flip();
+                checksum += bfsFromGoal(maze, distance, queue);
+            }
+            long full = (System.nanoTime() - start) / fullFlips;
+
+            verify(maze, walls, distance, queue, random);
+            System.out.printf("%-6d %18d %18d %9.0fx   (checksum %d)%n",
+                size, incremental, full, (double) full / incremental, checksum);
+        }
+    }
+
+    // Fills distance from the goal; returns the number of cells reached
+    private static int bfsFromGoal(Maze maze, int[] distance, int[] queue) {
+        int width = maze.getWidth();
+        java.util.Arrays.fill(distance, -1);
+        int goal = maze.getGoalPosition().y * width + maze.getGoalPosition().x;
+        int head = 0, tail = 0;
+        queue[tail++] = goal;
+        distance[goal] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int next = (y + DY[d]) * width + x + DX[d];
+                if (distance[next] < 0 && !maze.isWall(x + DX[d], y + DY[d])) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private static void verify(Maze maze, ShiftingWalls walls, int[] distance, int[] queue, Random random) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int reached = bfsFromGoal(maze, distance, queue);
+        int open = 0;
+        int edges = 0;
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                if (maze.isWall(x, y)) continue;
+                open++;
+                if (!maze.isWall(x + 1, y)) edges++;
+                if (!maze.isWall(x, y + 1)) edges++;
+            }
+        }
+        if (reached != open || edges != open - 1) {
+            throw new IllegalStateException("Maze is no longer a spanning tree");
+        }
+        for (int i = 0; i < 1000; i++) {
+            int x = 1 + random.nextInt(width - 2);
+            int y = 1 + random.nextInt(height - 2);
+            if (maze.isWall(x, y)) continue;
+            if (walls.distanceToGoal(x, y) != distance[y * width + x]) {
+                throw new IllegalStateException("Incremental distance differs from BFS at " + x + "," + y);
+            }
+        }
+    }
+}
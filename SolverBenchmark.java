@@ -0,0 +1,66 @@
+import java.util.Random;
+
+/**
+ * Compares the maze solvers on generated mazes of increasing size: average nodes
+ * expanded and nanoseconds per query between random pairs of open cells. Every query's
+ * path length is cross-checked between solvers.
+ *
+ * Usage: java SolverBenchmark [queries-per-size]
+ */
+public class SolverBenchmark {
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int[] sizes = {51, 201, 501, 1001, 2001};
+        MazeSolver[] solvers = {new AStarSolver(), new BidirectionalBfsSolver(), new JumpPointSolver(), new OracleSolver()};
+
+        System.out.printf("%-6s %-20s %14s %14s %12s%n", "Size", "Solver", "expanded/query", "ns/query", "avg path");
+        for (int size : sizes) {
+            Maze maze = new Maze(new ArrayMazeStorage(size, size), size);
+            Random random = new Random(size);
+            int[] from = new int[queries];
+            int[] to = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                from[q] = randomOpenCell(maze, random);
+                to[q] = randomOpenCell(maze, random);
+            }
+
+            int[] expectedLengths = null;
+            for (MazeSolver solver : solvers) {
+                // Warm up, then measure
+                for (int q = 0; q < Math.min(queries, 200); q++) solver.solve(maze, from[q], to[q]);
+                solver.resetExpandedNodes();
+
+                int[] lengths = new int[queries];
+                long totalPath = 0;
+                long start = System.nanoTime();
+                for (int q = 0; q < queries; q++) {
+                    lengths[q] = solver.solve(maze, from[q], to[q]).length;
+                    totalPath += lengths[q];
+                }
+                long elapsed = System.nanoTime() - start;
+
+                if (expectedLengths == null) {
+                    expectedLengths = lengths;
+                } else {
+                    for (int q = 0; q < queries; q++) {
+                        if (lengths[q] != expectedLengths[q]) {
+                            throw new IllegalStateException(solver.getName() + " disagrees on query " + q
+                                + ": " + lengths[q] + " vs " + expectedLengths[q]);
+                        }
+                    }
+                }
+                System.out.printf("%-6d %-20s %14.0f %14.0f %12.0f%n", size, solver.getName(),
+                    (double) solver.getExpandedNodes() / queries, (double) elapsed / queries,
+                    (double) totalPath / queries);
+            }
+        }
+    }
+
+    private static int randomOpenCell(Maze maze, Random random) {
+        while (true) {
+            int x = 1 + random.nextInt(maze.getWidth() - 2);
+            int y = 1 + random.nextInt(maze.getHeight() - 2);
+            if (!maze.isWall(x, y)) return MazeSolver.pack(x, y, maze.getWidth());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for {@link SpectatorPublisher}: a simulated game moves the player while
+ * hundreds of subscribers (virtual threads) decode the stream. Reports delivery latency
+ * and CPU against subscriber count, and checks every view ends up matching the game,
+ * including after a switch part way through to a new maze whose walls shift, and that the
+ * publisher goes idle once the game stops.
+ *
+ * Usage: java SpectatorLoadTest [seconds-per-run]
+ */
+public class SpectatorLoadTest {
+    private static final int MOVES_PER_SECOND = 1000;
+    private static final int SAMPLES = 1 << 14; // Latency samples kept per subscriber
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        int[] counts = {1, 10, 100, 250, 500, 1000};
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        System.out.printf("%-11s %12s %10s %10s %14s %12s %10s%n", "Subscribers", "delivered/s",
+            "p50 us", "p99 us", "publisher CPU", "process CPU", "overflows");
+        for (int count : counts) {
+            SpectatorPublisher publisher = SpectatorPublisher.open();
+            GameStateManager state = new GameStateManager();
+            state.startLevel();
+            Maze maze = new Maze(new ArrayMazeStorage(201, 201), count);
+            publisher.update(maze, state);
+
+            List<SpectatorPublisher.Subscriber> subscribers = new ArrayList<>();
+            List<SpectatorView> views = new ArrayList<>();
+            long[][] latencies = new long[count][SAMPLES];
+            long[] received = new long[count];
+            List<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                SpectatorPublisher.Subscriber subscriber = publisher.subscribe();
+                SpectatorView view = new SpectatorView();
+                subscribers.add(subscriber);
+                views.add(view);
+                int id = i;
+                readers.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        while (true) {
+                            SpectatorPublisher.Message message = subscriber.take();
+                            latencies[id][(int) (received[id]++ % SAMPLES)] = System.nanoTime() - message.publishedNanos();
+                            view.apply(message);
+                        }
+                    } catch (InterruptedException e) {
+                        // Run finished
+                    }
+                }));
+            }
+
+            // Simulated game thread: random moves, a clock tick every second, a new maze half way
+            long cpuStart = os.getProcessCpuTime();
+            long publisherCpuStart = threads.getThreadCpuTime(publisher.getPublisherThreadId());
+            long start = System.nanoTime();
+            long end = start + (long) (seconds * 1e9);
+            Random random = new Random(count);
+            ShiftingWalls shiftingWalls = null;
+            for (long move = 0; System.nanoTime() < end; move++) {
+                int d = random.nextInt(4);
+                maze.movePlayer(ReplayRecorder.DX[d], ReplayRecorder.DY[d]);
+                if (move % MOVES_PER_SECOND == 0) {
+                    state.updateTime(1);
+                    if (shiftingWalls != null) shiftingWalls.tick();
+                }
+                if (shiftingWalls == null && System.nanoTime() > start + (end - start) / 2) {
+                    maze = new Maze(new ArrayMazeStorage(201, 201), count + 1);
+                    shiftingWalls = new ShiftingWalls(maze, count);
+                    shiftingWalls.addListener(publisher);
+                }
+                publisher.update(maze, state);
+                sleepUntil(start + (move + 1) * 1_000_000_000L / MOVES_PER_SECOND);
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            double processCpu = (os.getProcessCpuTime() - cpuStart) / 1e9 / elapsed;
+            double publisherCpu = (threads.getThreadCpuTime(publisher.getPublisherThreadId()) - publisherCpuStart) / 1e9 / elapsed;
+
+            // Let the last frames arrive, then check every view caught up with the game
+            long settle = System.nanoTime() + 2_000_000_000L; // Many readers on few cores can take a while to drain
+            do {
+                Thread.sleep(200);
+            } while (!publisher.isIdle() && System.nanoTime() < settle);
+            if (!publisher.isIdle()) throw new IllegalStateException("Publisher still busy with the game stopped");
+            for (Thread reader : readers) reader.interrupt();
+            for (Thread reader : readers) reader.join();
+            publisher.close();
+            long overflows = 0;
+            for (int i = 0; i < count; i++) {
+                SpectatorView view = views.get(i);
+                overflows += subscribers.get(i).getOverflows();
+                if (!view.isSynced() || view.getPlayerX() != maze.getPlayerX() || view.getPlayerY() != maze.getPlayerY()
+                        || view.getTimeRemaining() != state.getTimeRemaining() || view.getWidth() != maze.getWidth()
+                        || !sameWalls(view, maze)) {
+                    throw new IllegalStateException("Subscriber " + i + " is out of sync");
+                }
+            }
+
+            long total = 0;
+            int samples = 0;
+            for (int i = 0; i < count; i++) {
+                total += received[i];
+                samples += (int) Math.min(received[i], SAMPLES);
+            }
+            long[] all = new long[samples];
+            for (int i = 0, filled = 0; i < count; i++) {
+                int kept = (int) Math.min(received[i], SAMPLES);
+                System.arraycopy(latencies[i], 0, all, filled, kept);
+                filled += kept;
+            }
+            Arrays.sort(all);
+            System.out.printf("%-11d %12.0f %10.1f %10.1f %13.1f%% %11.1f%% %10d%n", count, total / elapsed,
+                all[all.length / 2] / 1e3, all[(int) (all.length * 0.99)] / 1e3,
+                publisherCpu * 100, processCpu * 100, overflows);
+            if (count == counts[counts.length - 1]) {
+                System.out.printf("Average encoded update: %.1f bytes%n",
+                    (double) publisher.getBytesPublished() / publisher.getMessagesPublished());
+            }
+        }
+    }
+
+    private static boolean sameWalls(SpectatorView view, Maze maze) {
+        for (int y = 0; y < maze.getHeight(); y++) {
+            for (int x = 0; x < maze.getWidth(); x++) {
+                if (view.isWall(x, y) != maze.isWall(x, y)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
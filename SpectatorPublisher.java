@@ -0,0 +1,384 @@
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams the running game to local spectators.
+ *
+ * The game thread writes player position, time, score and level into a seqlock-guarded
+ * snapshot, which never blocks it. A publisher thread samples the snapshot at a fixed
+ * rate, encodes the change since the previous frame once (a bitmask of changed fields
+ * followed by zigzag varint deltas), and hands the same message to every subscriber's
+ * queue. New subscribers, and subscribers whose queue overflowed, are sent the maze
+ * layout and/or an absolute keyframe so they can resynchronize.
+ *
+ * The layout is copied on the game thread when a new maze is put in play. Walls that
+ * shift afterwards arrive through {@link ShiftingWalls.Listener} and are appended to a
+ * per-layout log that subscribers are sent in order. With no subscribers, or nothing new
+ * to send, the publisher thread parks until that changes.
+ */
+public class SpectatorPublisher implements AutoCloseable, ShiftingWalls.Listener {
+    public static final byte LAYOUT = 0;
+    public static final byte KEYFRAME = 1;
+    public static final byte DELTA = 2;
+    public static final byte WALLS = 3;
+    static final int FIELDS = 5; // Player x, player y, time remaining, score, level
+    private static final long PUBLISH_INTERVAL_NANOS = 1_000_000_000L / 60;
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /** One encoded update, shared by every subscriber it is sent to. */
+    public record Message(byte[] data, long publishedNanos) {
+        public byte type() { return data[0]; }
+    }
+
+    /** A spectator's inbox. Messages must be applied in order, e.g. to a {@link SpectatorView}. */
+    public class Subscriber implements AutoCloseable {
+        private final ArrayBlockingQueue<Message> queue;
+        // Publisher thread only: what this subscriber has been sent
+        private long layoutSent = -1;
+        private int flipsSent;
+        private boolean needsKeyframe = true;
+        private volatile long overflows; // Written by the publisher thread only
+
+        private Subscriber(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        public Message take() throws InterruptedException {
+            return queue.take();
+        }
+
+        public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        /** Times this subscriber fell behind and had to be resent a keyframe. */
+        public long getOverflows() { return overflows; }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+        }
+
+        private boolean offer(Message message) {
+            if (queue.offer(message)) return true;
+            overflows++;
+            needsKeyframe = true; // The delta chain is broken
+            return false;
+        }
+
+        private boolean isBehind(Snapshot snapshot) {
+            return needsKeyframe || layoutSent != snapshot.layoutVersion || flipsSent < snapshot.flipCount;
+        }
+    }
+
+    /** The publisher thread's copy of the shared state. */
+    private static class Snapshot {
+        final int[] fields = new int[FIELDS];
+        long sequence = -1;
+        byte[] layout;
+        long layoutVersion;
+        int[] flips;
+        int flipCount;
+    }
+
+    // Seqlock: odd while the game thread is writing. Game thread writes everything below.
+    private volatile long sequence;
+    private final int[] fields = new int[FIELDS];
+    private Maze layoutMaze;
+    private byte[] layout;       // Encoded walls as they were when layoutMaze was put in play
+    private long layoutVersion;
+    private int[] flips = new int[0]; // Closed and opened corridor cells since then; entries below flipCount never change
+    private int flipCount;
+
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Thread publisher;
+    private volatile boolean idle; // Publisher is parked until a subscriber joins or the state changes
+    private volatile boolean closed;
+    private long messagesPublished;
+    private long bytesPublished;
+
+    private SpectatorPublisher() {
+        publisher = new Thread(this::publishLoop, "spectator-publisher");
+        publisher.setDaemon(true);
+    }
+
+    public static SpectatorPublisher open() {
+        SpectatorPublisher spectators = new SpectatorPublisher();
+        spectators.publisher.start();
+        return spectators;
+    }
+
+    /** Called by the game thread after any change; never blocks. */
+    public void update(Maze maze, GameStateManager state) {
+        // A new maze: copy its walls here, where they cannot shift underneath us
+        byte[] newLayout = maze != layoutMaze ? encodeLayout(maze, layoutVersion + 1) : null;
+        long current = sequence;
+        sequence = current + 1;
+        VarHandle.storeStoreFence(); // Field writes stay after the odd sequence
+        if (newLayout != null) {
+            layoutMaze = maze;
+            layout = newLayout;
+            layoutVersion++;
+            flips = new int[16]; // The publisher may still be reading the old log
+            flipCount = 0;
+        }
+        fields[0] = maze.getPlayerX();
+        fields[1] = maze.getPlayerY();
+        fields[2] = state.getTimeRemaining();
+        fields[3] = state.getScore();
+        fields[4] = state.getCurrentLevel();
+        sequence = current + 2;
+        wakePublisher();
+    }
+
+    /** Game thread: logs a wall flip in the maze last passed to {@link #update}. */
+    @Override
+    public void wallsShifted(int closedX, int closedY, int openedX, int openedY) {
+        if (layoutMaze == null) return;
+        int width = layoutMaze.getWidth();
+        long current = sequence;
+        sequence = current + 1;
+        VarHandle.storeStoreFence();
+        if (flipCount + 2 > flips.length) {
+            flips = Arrays.copyOf(flips, Math.max(16, flips.length * 2));
+        }
+        flips[flipCount] = closedY * width + closedX;
+        flips[flipCount + 1] = openedY * width + openedX;
+        flipCount += 2;
+        sequence = current + 2;
+        wakePublisher();
+    }
+
+    public Subscriber subscribe() {
+        return subscribe(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public Subscriber subscribe(int queueCapacity) {
+        Subscriber subscriber = new Subscriber(queueCapacity);
+        subscribers.add(subscriber);
+        LockSupport.unpark(publisher);
+        return subscriber;
+    }
+
+    public int getSubscriberCount() { return subscribers.size(); }
+    public synchronized long getMessagesPublished() { return messagesPublished; }
+    public synchronized long getBytesPublished() { return bytesPublished; }
+
+    long getPublisherThreadId() { return publisher.threadId(); }
+
+    /** True while the publisher thread is parked with nothing to send. */
+    boolean isIdle() { return idle; }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(publisher);
+        try {
+            publisher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Reads idle after the sequence write: either we see it set, or the publisher sees our write
+    private void wakePublisher() {
+        if (idle && !subscribers.isEmpty()) LockSupport.unpark(publisher);
+    }
+
+    private void publishLoop() {
+        int[] previous = new int[FIELDS];
+        Snapshot snapshot = new Snapshot();
+        long publishedSequence = -1;
+        long publishedLayout = -1;
+        int publishedFlips = 0;
+        Message layoutMessage = null;
+        long frame = 0;
+        long next = System.nanoTime();
+
+        while (!closed) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            next += PUBLISH_INTERVAL_NANOS;
+            if (!hasWork(publishedSequence, snapshot)) {
+                idle = true;
+                while (!closed && !hasWork(publishedSequence, snapshot)) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                next = System.nanoTime() + PUBLISH_INTERVAL_NANOS;
+                if (closed) break;
+            }
+
+            readSnapshot(snapshot);
+            publishedSequence = snapshot.sequence;
+            if (snapshot.layout == null) continue; // No game yet
+            int[] current = snapshot.fields;
+            long version = snapshot.layoutVersion;
+            long now = System.nanoTime();
+            frame++;
+            if (version != publishedLayout) {
+                layoutMessage = new Message(snapshot.layout, now);
+                publishedLayout = version;
+                publishedFlips = 0;
+            }
+
+            Message walls = null;
+            Message delta = null;
+            Message keyframe = null;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.layoutSent != version) {
+                    if (!subscriber.offer(layoutMessage)) continue;
+                    subscriber.layoutSent = version;
+                    subscriber.flipsSent = 0;
+                    subscriber.needsKeyframe = true;
+                }
+                if (subscriber.flipsSent < snapshot.flipCount) {
+                    // Most subscribers are exactly one frame behind and share one message
+                    Message message;
+                    if (subscriber.flipsSent == publishedFlips) {
+                        if (walls == null) walls = new Message(encodeWalls(snapshot, publishedFlips), now);
+                        message = walls;
+                    } else {
+                        message = new Message(encodeWalls(snapshot, subscriber.flipsSent), now);
+                    }
+                    if (!subscriber.offer(message)) continue;
+                    subscriber.flipsSent = snapshot.flipCount;
+                }
+                if (subscriber.needsKeyframe) {
+                    if (keyframe == null) keyframe = new Message(encodeFrame(KEYFRAME, frame, null, current), now);
+                    if (subscriber.offer(keyframe)) subscriber.needsKeyframe = false;
+                } else if (!Arrays.equals(previous, current)) {
+                    if (delta == null) delta = new Message(encodeFrame(DELTA, frame, previous, current), now);
+                    subscriber.offer(delta);
+                }
+            }
+            synchronized (this) {
+                for (Message message : new Message[] {walls, keyframe, delta}) {
+                    if (message == null) continue;
+                    messagesPublished++;
+                    bytesPublished += message.data().length;
+                }
+            }
+            publishedFlips = snapshot.flipCount;
+            System.arraycopy(current, 0, previous, 0, FIELDS);
+        }
+    }
+
+    // Something changed since the last frame, or a subscriber still needs catching up
+    private boolean hasWork(long publishedSequence, Snapshot snapshot) {
+        if (subscribers.isEmpty()) return false;
+        if (sequence != publishedSequence) return true;
+        if (snapshot.layout == null) return false; // No game yet
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isBehind(snapshot)) return true;
+        }
+        return false;
+    }
+
+    // Copies a consistent snapshot; retries while the game thread is mid-write
+    private void readSnapshot(Snapshot into) {
+        for (int attempt = 0; ; attempt++) {
+            long before = sequence;
+            if ((before & 1) != 0) {
+                // The writer holds the odd count only for a few stores, unless it was descheduled
+                if (attempt < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                continue;
+            }
+            System.arraycopy(fields, 0, into.fields, 0, FIELDS);
+            byte[] layoutNow = layout;
+            long version = layoutVersion;
+            int[] flipsNow = flips;
+            int flipCountNow = flipCount;
+            VarHandle.acquireFence(); // Reads above complete before the sequence is checked again
+            if (sequence == before) {
+                into.sequence = before;
+                into.layout = layoutNow;
+                into.layoutVersion = version;
+                into.flips = flipsNow;
+                into.flipCount = flipCountNow;
+                return;
+            }
+        }
+    }
+
+    // Type, version, size, start, goal, then one bit per cell (1 = wall), row by row
+    private static byte[] encodeLayout(Maze maze, long version) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + (int) (((long) width * height + 7) / 8));
+        out.write(LAYOUT);
+        writeVarint(out, version);
+        writeVarint(out, width);
+        writeVarint(out, height);
+        writeVarint(out, maze.getStartPosition().x);
+        writeVarint(out, maze.getStartPosition().y);
+        writeVarint(out, maze.getGoalPosition().x);
+        writeVarint(out, maze.getGoalPosition().y);
+        int bits = 0;
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (maze.isWall(x, y)) bits |= 1 << count;
+                if (++count == 8) {
+                    out.write(bits);
+                    bits = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) out.write(bits);
+        return out.toByteArray();
+    }
+
+    // Type, flip count, then the closed and opened packed cell of each flip since the given log index
+    private static byte[] encodeWalls(Snapshot snapshot, int from) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + 4 * (snapshot.flipCount - from));
+        out.write(WALLS);
+        writeVarint(out, (snapshot.flipCount - from) / 2);
+        for (int i = from; i < snapshot.flipCount; i++) {
+            writeVarint(out, snapshot.flips[i]);
+        }
+        return out.toByteArray();
+    }
+
+    // Keyframes hold every field; deltas a bitmask of changed fields and their zigzag differences
+    private static byte[] encodeFrame(byte type, long frame, int[] previous, int[] current) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(type);
+        writeVarint(out, frame);
+        if (type == KEYFRAME) {
+            for (int value : current) writeVarint(out, zigzag(value));
+            return out.toByteArray();
+        }
+        int mask = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            if (current[i] != previous[i]) mask |= 1 << i;
+        }
+        out.write(mask);
+        for (int i = 0; i < FIELDS; i++) {
+            if ((mask & 1 << i) != 0) writeVarint(out, zigzag(current[i] - previous[i]));
+        }
+        return out.toByteArray();
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
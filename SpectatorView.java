@@ -0,0 +1,98 @@
+/**
+ * A spectator's copy of the game, rebuilt from {@link SpectatorPublisher} messages applied
+ * in the order they were received.
+ */
+public class SpectatorView {
+    private int width;
+    private int height;
+    private byte[] walls = new byte[0]; // One bit per cell, row by row
+    private int startX, startY, goalX, goalY;
+    private final int[] fields = new int[SpectatorPublisher.FIELDS];
+    private long layoutVersion = -1;
+    private long frame = -1;
+    private boolean synced; // A keyframe has arrived since the last layout
+
+    private int position;
+    private byte[] data;
+
+    public void apply(SpectatorPublisher.Message message) {
+        data = message.data();
+        position = 1;
+        switch (message.type()) {
+            case SpectatorPublisher.LAYOUT:
+                layoutVersion = readVarint();
+                width = (int) readVarint();
+                height = (int) readVarint();
+                startX = (int) readVarint();
+                startY = (int) readVarint();
+                goalX = (int) readVarint();
+                goalY = (int) readVarint();
+                walls = java.util.Arrays.copyOfRange(data, position, data.length);
+                synced = false;
+                break;
+            case SpectatorPublisher.KEYFRAME:
+                frame = readVarint();
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = unzigzag(readVarint());
+                }
+                synced = true;
+                break;
+            case SpectatorPublisher.DELTA:
+                if (!synced) throw new IllegalStateException("Delta before keyframe");
+                frame = readVarint();
+                int mask = data[position++];
+                for (int i = 0; i < fields.length; i++) {
+                    if ((mask & 1 << i) != 0) fields[i] += unzigzag(readVarint());
+                }
+                break;
+            case SpectatorPublisher.WALLS:
+                // Pairs of packed cells: a corridor that closed, then the one that opened
+                for (long flips = readVarint(); flips > 0; flips--) {
+                    int closed = (int) readVarint();
+                    int opened = (int) readVarint();
+                    walls[closed >> 3] |= (byte) (1 << (closed & 7));
+                    walls[opened >> 3] &= (byte) ~(1 << (opened & 7));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown message type " + message.type());
+        }
+    }
+
+    public boolean isWall(int x, int y) {
+        int bit = y * width + x;
+        return (walls[bit >> 3] & 1 << (bit & 7)) != 0;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getStartX() { return startX; }
+    public int getStartY() { return startY; }
+    public int getGoalX() { return goalX; }
+    public int getGoalY() { return goalY; }
+    public int getPlayerX() { return fields[0]; }
+    public int getPlayerY() { return fields[1]; }
+    public int getTimeRemaining() { return fields[2]; }
+    public int getScore() { return fields[3]; }
+    public int getLevel() { return fields[4]; }
+    public long getLayoutVersion() { return layoutVersion; }
+    public long getFrame() { return frame; }
+    public boolean isSynced() { return synced; }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int unzigzag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
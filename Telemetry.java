@@ -0,0 +1,284 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gameplay telemetry: producers record fixed-size events into a preallocated lock-free
+ * ring, and a background thread writes them in batches to gzip files that are rotated by
+ * size, keeping only the newest few.
+ *
+ * Recording claims a slot with one CAS and writes primitives into parallel arrays, so it
+ * never allocates or blocks. When the ring is full the new event is dropped (the events
+ * already queued are kept) and counted; the writer logs a {@link #DROPPED} event with the
+ * count so gaps are visible in the files.
+ *
+ * File format: magic, version, start time (epoch millis), then 20-byte records of
+ * nanoseconds since start, type, and two int arguments.
+ */
+public class Telemetry implements Closeable {
+    private static final int MAGIC = 0x4D52544C; // "MRTL"
+    private static final int VERSION = 1;
+    private static final int CAPACITY = 1 << 16; // Events; must be a power of two
+    private static final int MAX_BATCH = 4096;
+    private static final long ROTATE_BYTES = 8L * 1024 * 1024; // Uncompressed bytes per file
+    private static final int MAX_FILES = 8;
+    private static final long IDLE_PARK_NANOS = 10_000_000;
+
+    // Event types and their arguments
+    public static final int MOVE = 0;           // x, y
+    public static final int LEVEL_START = 1;    // level, seconds
+    public static final int LEVEL_COMPLETE = 2; // level, score
+    public static final int GAME_OVER = 3;      // level, score
+    public static final int PAUSE = 4;
+    public static final int RESUME = 5;
+    public static final int FRAME_STATS = 6;    // last frame time, last input latency (microseconds)
+    public static final int DROPPED = 7;        // events dropped since the previous DROPPED
+
+    private final Path directory;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+
+    // Ring: a slot is readable once published[slot] == its sequence number + 1
+    private final long[] times = new long[CAPACITY];
+    private final int[] types = new int[CAPACITY];
+    private final int[] firstArgs = new int[CAPACITY];
+    private final int[] secondArgs = new int[CAPACITY];
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong(); // Next sequence to claim
+    private volatile long head;                       // Next sequence to consume
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean closed;
+    private DataOutputStream out;
+    private long fileBytes;
+    private int fileIndex;
+
+    private Telemetry(Path directory) {
+        this.directory = directory;
+        this.writer = new Thread(this::writeLoop, "telemetry-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public static Telemetry open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Telemetry telemetry = new Telemetry(directory);
+        telemetry.writer.start();
+        return telemetry;
+    }
+
+    /** Records an event; returns false if it was dropped because the ring is full. */
+    public boolean record(int type, int firstArg, int secondArg) {
+        long time = System.nanoTime() - startNanos;
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= CAPACITY || closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & (CAPACITY - 1);
+        times[slot] = time;
+        types[slot] = type;
+        firstArgs[slot] = firstArg;
+        secondArgs[slot] = secondArg;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    public boolean record(int type) {
+        return record(type, 0, 0);
+    }
+
+    public long getDropped() { return dropped.get(); }
+    public long getWritten() { return written.get(); }
+
+    /** Writes everything already recorded, then closes the current file. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        long reportedDrops = 0;
+        try {
+            while (true) {
+                boolean stopping = closed; // Read before draining so nothing recorded earlier is missed
+                int batch = drain();
+                long drops = dropped.get();
+                if (drops != reportedDrops && out != null) {
+                    writeRecord(System.nanoTime() - startNanos, DROPPED, (int) Math.min(Integer.MAX_VALUE, drops - reportedDrops), 0);
+                    reportedDrops = drops;
+                }
+                if (batch == 0) {
+                    // Seal the ring so later records are dropped as if it were full; this fails
+                    // while a producer still holds a claimed but unpublished slot, so wait for it
+                    if (stopping && tail.compareAndSet(head, head + CAPACITY)) break;
+                    if (out != null) out.flush(); // Quiet moment: push the batch to the gzip stream
+                    if (stopping) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Telemetry disabled: " + e.getMessage());
+            closed = true;
+        } finally {
+            closeFile();
+        }
+    }
+
+    // Writes up to MAX_BATCH published events; returns how many
+    private int drain() throws IOException {
+        long position = head;
+        int count = 0;
+        while (count < MAX_BATCH) {
+            int slot = (int) position & (CAPACITY - 1);
+            if (published.get(slot) != position + 1) break;
+            if (out == null || fileBytes >= ROTATE_BYTES) rotate();
+            writeRecord(times[slot], types[slot], firstArgs[slot], secondArgs[slot]);
+            position++;
+            count++;
+            head = position; // Frees the slot for producers
+        }
+        written.addAndGet(count);
+        return count;
+    }
+
+    private void writeRecord(long time, int type, int firstArg, int secondArg) throws IOException {
+        out.writeLong(time);
+        out.writeInt(type);
+        out.writeInt(firstArg);
+        out.writeInt(secondArg);
+        fileBytes += 20;
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        Path file = directory.resolve(String.format("telemetry-%d-%03d.bin.gz", startMillis, fileIndex++));
+        OutputStream stream = new GZIPOutputStream(Files.newOutputStream(file), 1 << 16);
+        out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(startMillis);
+        fileBytes = 16;
+        deleteOldFiles();
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close(); // Finishes the gzip trailer
+        } catch (IOException e) {
+            System.err.println("Error closing telemetry file: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    // Keeps the newest MAX_FILES files, ordered by start time, then index (compared as numbers)
+    private void deleteOldFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(p -> p.getFileName().toString().matches("telemetry-\\d+-\\d+\\.bin\\.gz"))
+                .sorted(Comparator.comparingLong((Path p) -> fileNumber(p, 1)).thenComparingLong(p -> fileNumber(p, 2)))
+                .forEach(files::add);
+        }
+        for (int i = 0; i < files.size() - MAX_FILES; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    // Start time (part 1) or index (part 2) from telemetry-<start>-<index>.bin.gz
+    private static long fileNumber(Path file, int part) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')).split("-")[part]);
+    }
+
+    // Producer cost per event, on the accepted path and when producers outrun the writer
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Path directory = Files.createTempDirectory("telemetry");
+
+        // Accepted path: bursts of half a ring, timed only while recording, then let the writer catch up
+        Telemetry telemetry = Telemetry.open(directory);
+        long recordNanos = 0;
+        long recorded = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CAPACITY / 2; i++) {
+                telemetry.record(MOVE, i, round);
+            }
+            recordNanos += System.nanoTime() - start;
+            recorded += CAPACITY / 2;
+            while (telemetry.getWritten() < recorded) {
+                Thread.sleep(1);
+            }
+        }
+        telemetry.close();
+        System.out.printf("Accepted path: %,d events, %.1f ns/event, %d dropped%n",
+            recorded, (double) recordNanos / recorded, telemetry.getDropped());
+
+        // Saturation: the ring fills and further events are dropped, not waited for
+        int events = rounds * CAPACITY;
+        System.out.printf("%-8s %12s %14s %14s%n", "Threads", "ns/event", "written", "dropped");
+        for (int threads = 1; threads <= Math.max(2, Runtime.getRuntime().availableProcessors()); threads *= 2) {
+            Telemetry saturated = Telemetry.open(directory);
+            int perThread = events / threads;
+            Thread[] producers = new Thread[threads];
+            long[] nanos = new long[threads];
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                producers[t] = new Thread(() -> {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < perThread; i++) {
+                        saturated.record(MOVE, id, i);
+                    }
+                    nanos[id] = System.nanoTime() - start;
+                });
+            }
+            for (Thread producer : producers) producer.start();
+            for (Thread producer : producers) producer.join();
+            saturated.close();
+            long total = 0;
+            for (long n : nanos) total += n;
+            System.out.printf("%-8d %12.1f %,14d %,14d%n",
+                threads, (double) total / ((long) perThread * threads), saturated.getWritten(), saturated.getDropped());
+        }
+
+        long bytes = 0;
+        int files = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                bytes += Files.size(file);
+                files++;
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        System.out.printf("%d rotated files kept, %,d compressed bytes%n", files, bytes);
+    }
+}